@@ -0,0 +1,84 @@
+package com.pluralsight.bench;
+
+import com.pluralsight.account.AccountDirectory;
+import com.pluralsight.io.LedgerFiles;
+import com.pluralsight.store.CategorySummary;
+import com.pluralsight.store.ColumnarLedgerStore;
+import com.pluralsight.store.LedgerStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Opening a data directory of many account ledgers: one after another against
+ * {@link AccountDirectory#loadAll()} (one virtual thread per account), plus the
+ * cross-account fan-out/merge queries once they are loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Xmx4g"})
+public class AccountDirectoryBenchmark {
+    @Param({"100", "500"})
+    public int accounts;
+
+    @Param({"2000"})
+    public int rowsPerAccount;
+
+    private Path dir;
+    private AccountDirectory loaded;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("ledger-accounts");
+        for (int a = 0; a < accounts; a++) {
+            LedgerDataGenerator.write(rowsPerAccount, LedgerDataGenerator.SEED + a, dir.resolve("account-" + a + ".csv"));
+        }
+        loaded = new AccountDirectory(dir);
+        loaded.loadAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public long loadSequential() throws IOException {
+        AccountDirectory directory = new AccountDirectory(dir);
+        long total = 0;
+        for (String account : directory.accountNames()) {
+            LedgerStore store = new ColumnarLedgerStore();
+            LedgerFiles.load(directory.fileFor(account), directory.segmentFor(account), store);
+            total += store.balanceCents();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long loadParallel() throws IOException {
+        AccountDirectory directory = new AccountDirectory(dir);
+        directory.loadAll();
+        return directory.totalBalanceCents();
+    }
+
+    @Benchmark
+    public long totalBalance() {
+        return loaded.totalBalanceCents();
+    }
+
+    @Benchmark
+    public List<CategorySummary> categoriesAcrossAccounts() {
+        return loaded.categories();
+    }
+}
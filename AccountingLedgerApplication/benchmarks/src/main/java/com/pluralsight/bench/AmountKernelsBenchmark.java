@@ -0,0 +1,55 @@
+package com.pluralsight.bench;
+
+import com.pluralsight.store.AmountKernels;
+import com.pluralsight.store.AmountStats;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The one-pass aggregation kernel (vector and scalar) against the stream
+ * pipelines printSummary and the sparkline used to run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "--add-modules", "jdk.incubator.vector"})
+public class AmountKernelsBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    private long[] cents;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(LedgerDataGenerator.SEED);
+        cents = new long[rows];
+        for (int i = 0; i < rows; i++) cents[i] = random.nextInt(1_000_000) - 400_000;
+        AmountKernels.check(cents);
+    }
+
+    @Benchmark
+    public AmountStats kernel() {
+        return AmountKernels.stats(cents);
+    }
+
+    @Benchmark
+    public AmountStats scalar() {
+        return AmountKernels.scalarStats(cents, 0, cents.length);
+    }
+
+    @Benchmark
+    public AmountStats streams() {
+        return new AmountStats(
+                Arrays.stream(cents).filter(v -> v > 0).sum(),
+                Arrays.stream(cents).filter(v -> v < 0).sum(),
+                Arrays.stream(cents).min().orElse(0),
+                Arrays.stream(cents).max().orElse(0),
+                cents.length);
+    }
+}
@@ -0,0 +1,149 @@
+package com.pluralsight.bench;
+
+import com.pluralsight.Transaction;
+import com.pluralsight.store.AmountStats;
+import com.pluralsight.store.ConcurrentLedgerStore;
+import com.pluralsight.store.LedgerStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stress check for {@link ConcurrentLedgerStore}: many threads append (and
+ * later remove) while readers hammer the optimistic and locked read paths.
+ * Fails with a non-zero exit code on a lost update or an inconsistent read.
+ *
+ * java -cp target/benchmarks.jar com.pluralsight.bench.ConcurrentStoreStress [writers] [rowsPerWriter] [readers]
+ */
+public class ConcurrentStoreStress {
+
+    public static void main(String[] args) throws InterruptedException {
+        int writers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int readers = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        ConcurrentLedgerStore store = new ConcurrentLedgerStore();
+        List<String> failures = new ArrayList<>();
+
+        // Phase 1: deposits only, so every balance a reader sees must be non-decreasing
+        AtomicLong expected = new AtomicLong();
+        long started = System.nanoTime();
+        run(writers, readers, store, failures, true, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long sum = 0;
+            for (int i = 0; i < rows; i++) {
+                long cents = 1 + random.nextInt(100_000);
+                store.append(row(i, cents));
+                sum += cents;
+            }
+            expected.addAndGet(sum);
+        });
+        report("append", writers * (long) rows, started);
+        check(failures, store.size() == writers * rows, "size " + store.size() + " != " + writers * rows);
+        check(failures, store.balanceCents() == expected.get(), "balance " + store.balanceCents() + " != " + expected.get());
+
+        // Phase 2: appends mixed with removes of random rows
+        started = System.nanoTime();
+        run(writers, readers, store, failures, false, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long sum = 0;
+            for (int i = 0; i < rows; i++) {
+                if (random.nextInt(3) == 0) {
+                    Transaction removed = store.write(s -> s.remove(ThreadLocalRandom.current().nextInt(s.size())));
+                    sum -= removed.getAmountCents();
+                } else {
+                    long cents = random.nextInt(200_000) - 100_000;
+                    store.append(row(i, cents));
+                    sum += cents;
+                }
+            }
+            expected.addAndGet(sum);
+        });
+        report("append/remove", writers * (long) rows, started);
+        check(failures, store.balanceCents() == expected.get(), "balance " + store.balanceCents() + " != " + expected.get());
+        check(failures, store.amountStats().getNetCents() == expected.get(), "column sum != expected balance");
+        store.recalculateBalances();
+        check(failures, store.balanceCents() == expected.get(), "rebuilt balance differs");
+        long[] balances = store.balancesCents();
+        check(failures, balances.length == store.size() && balances[balances.length - 1] == expected.get(),
+                "running balances do not end at the closing balance");
+
+        if (failures.isEmpty()) {
+            System.out.printf("OK: %,d rows, balance %,d cents%n", store.size(), store.balanceCents());
+        } else {
+            failures.stream().limit(20).forEach(f -> System.out.println("FAIL: " + f));
+            System.exit(1);
+        }
+    }
+
+    private static void run(int writers, int readers, ConcurrentLedgerStore store, List<String> failures,
+                            boolean depositsOnly, Runnable writerBody) throws InterruptedException {
+        AtomicBoolean done = new AtomicBoolean();
+        List<Thread> readerThreads = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            Thread t = new Thread(() -> {
+                long lastBalance = Long.MIN_VALUE;
+                long nextScan = 0;
+                while (!done.get()) {
+                    // Optimistic read: in phase 1 balances only grow
+                    long balance = store.balanceCents();
+                    if (depositsOnly && balance < lastBalance) fail(failures, "balance went back " + lastBalance + " -> " + balance);
+                    lastBalance = balance;
+                    int size = store.size();
+                    if (size > 0) {
+                        try {
+                            store.amountCents(ThreadLocalRandom.current().nextInt(size));
+                        } catch (IndexOutOfBoundsException e) {
+                            // a remove shrank the ledger after size() was read
+                        }
+                    }
+                    if (System.nanoTime() < nextScan) continue;
+                    nextScan = System.nanoTime() + 50_000_000;
+                    // Every 50 ms: a consistent multi-value read (O(n)) and a search under the read lock
+                    String bad = store.read(s -> {
+                        AmountStats stats = s.amountStats();
+                        if (stats.getNetCents() != s.balanceCents()) return "net " + stats.getNetCents() + " != balance " + s.balanceCents();
+                        if (stats.getCount() != s.size()) return "count " + stats.getCount() + " != size " + s.size();
+                        return null;
+                    });
+                    if (bad != null) fail(failures, bad);
+                    store.search("", "", "stress 17", "");
+                }
+            }, "reader-" + r);
+            readerThreads.add(t);
+            t.start();
+        }
+        List<Thread> writerThreads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            Thread t = new Thread(writerBody, "writer-" + w);
+            writerThreads.add(t);
+            t.start();
+        }
+        for (Thread t : writerThreads) t.join();
+        done.set(true);
+        for (Thread t : readerThreads) t.join();
+    }
+
+    private static Transaction row(int i, long cents) {
+        return new Transaction("2024-01-01", "12:00:00", "stress " + (i % 50), "vendor " + (i % 7), "Stress",
+                cents / 100.0);
+    }
+
+    private static void check(List<String> failures, boolean ok, String message) {
+        if (!ok) fail(failures, message);
+    }
+
+    private static void fail(List<String> failures, String message) {
+        synchronized (failures) {
+            failures.add(message);
+        }
+    }
+
+    private static void report(String phase, long ops, long started) {
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("%-14s %,d ops in %.2f s (%,.0f ops/sec)%n", phase, ops, seconds, ops / seconds);
+    }
+}
@@ -0,0 +1,34 @@
+package com.pluralsight.bench;
+
+import com.pluralsight.store.AmountKernels;
+
+import java.util.Random;
+
+/**
+ * Correctness check for {@link AmountKernels}: random arrays of every length
+ * up to a few vector widths, plus edge values, compared with the stream results.
+ *
+ * java --add-modules jdk.incubator.vector -cp target/benchmarks.jar com.pluralsight.bench.KernelCheck
+ */
+public class KernelCheck {
+
+    public static void main(String[] args) {
+        Random random = new Random(LedgerDataGenerator.SEED);
+        int arrays = 0;
+        for (int length = 0; length <= 130; length++) {
+            for (int round = 0; round < 50; round++) {
+                long[] values = new long[length];
+                for (int i = 0; i < length; i++) {
+                    switch (random.nextInt(6)) {
+                        case 0:  values[i] = 0; break;
+                        case 1:  values[i] = random.nextBoolean() ? Long.MAX_VALUE / 4 : Long.MIN_VALUE / 4; break;
+                        default: values[i] = random.nextInt(2_000_000) - 1_000_000;
+                    }
+                }
+                AmountKernels.check(values);
+                arrays++;
+            }
+        }
+        System.out.printf("%,d arrays match (%s)%n", arrays, AmountKernels.describe());
+    }
+}
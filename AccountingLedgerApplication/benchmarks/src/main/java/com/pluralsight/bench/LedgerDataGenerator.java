@@ -0,0 +1,114 @@
+package com.pluralsight.bench;
+
+import com.pluralsight.Transaction;
+import com.pluralsight.store.LedgerTime;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic ledgers for benchmarks and load tools.
+ *
+ * Rows are spread over ten years in time order with a realistic mix of
+ * repeating descriptions, vendors and categories; about a third are deposits.
+ * The same row count and seed always produce the same file.
+ */
+public class LedgerDataGenerator {
+    static final long SEED = 42;
+    static final long START = LedgerTime.toEpochSecond("2015-01-01", "00:00:00");
+    static final long SPAN_SECONDS = 10L * 365 * LedgerTime.SECONDS_PER_DAY;
+
+    static final String[] DESCRIPTIONS = {"coffee", "groceries", "rent", "salary", "tax refund", "gas",
+            "internet bill", "gym membership", "dinner", "books", "invoice", "insurance"};
+    static final String[] VENDORS = {"Starbucks", "Amazon", "Shell", "Costco", "Landlord", "Employer",
+            "Comcast", "Planet Fitness", "Chipotle", "Barnes & Noble", "Client", "Geico"};
+    static final String[] CATEGORIES = {"Food", "Housing", "Income", "Transport", "Utilities", "Health",
+            "Shopping", "Extras"};
+
+    private final Random random;
+    private final long step;
+    private long timestamp = START;
+    private long balanceCents;
+
+    public LedgerDataGenerator(int rows, long seed) {
+        this.random = new Random(seed);
+        this.step = Math.max(1, SPAN_SECONDS / Math.max(1, rows));
+    }
+
+    /**
+     * Next row, strictly later than the previous one
+     */
+    public Transaction next() {
+        timestamp += 1 + random.nextLong(2 * step);
+        int kind = random.nextInt(DESCRIPTIONS.length);
+        boolean deposit = random.nextInt(3) == 0;
+        long cents = deposit ? 1_000 + random.nextInt(500_000) : -(100 + random.nextInt(50_000));
+        balanceCents += cents;
+        return new Transaction(
+                LedgerTime.formatDate(timestamp),
+                LedgerTime.formatTime(timestamp),
+                DESCRIPTIONS[kind] + " #" + random.nextInt(100),
+                VENDORS[random.nextInt(VENDORS.length)],
+                CATEGORIES[random.nextInt(CATEGORIES.length)],
+                cents / 100.0,
+                balanceCents / 100.0);
+    }
+
+    /**
+     * Writes rows transactions to file in the ledger's CSV format
+     */
+    public static void write(int rows, Path file) throws IOException {
+        write(rows, SEED, file);
+    }
+
+    /**
+     * Same with another seed, e.g. one per account
+     */
+    public static void write(int rows, long seed, Path file) throws IOException {
+        LedgerDataGenerator generator = new LedgerDataGenerator(rows, seed);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rows; i++) {
+                out.write(generator.next().toCsv());
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * CSV ledger of the given size in the temp directory, generated on first use
+     * and shared by later runs and forks
+     */
+    public static Path csv(int rows) {
+        Path file = Path.of(System.getProperty("java.io.tmpdir"), "ledger-bench-" + rows + ".csv");
+        try {
+            if (!Files.exists(file)) {
+                Path temp = Files.createTempFile(file.getParent(), "ledger-bench-", ".tmp");
+                write(rows, temp);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return file;
+    }
+
+    /**
+     * java -cp benchmarks.jar com.pluralsight.bench.LedgerDataGenerator 1000000 transactions.csv
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: LedgerDataGenerator <rows> <file>");
+            System.exit(2);
+        }
+        long started = System.nanoTime();
+        write(Integer.parseInt(args[0]), Path.of(args[1]));
+        System.out.printf("Wrote %,d rows to %s in %.1f s%n", Integer.parseInt(args[0]), args[1],
+                (System.nanoTime() - started) / 1e9);
+    }
+}
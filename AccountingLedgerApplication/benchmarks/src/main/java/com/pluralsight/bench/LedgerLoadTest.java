@@ -0,0 +1,158 @@
+package com.pluralsight.bench;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load-test client for the ledger's --server mode. Each of N virtual-thread
+ * workers sends requests back to back for a fixed time (40% deposits/payments,
+ * 40% balance, 20% search) and records every latency; the totals are
+ * requests/sec and p50/p99/max per endpoint.
+ *
+ * java -cp target/benchmarks.jar com.pluralsight.bench.LedgerLoadTest [baseUrl] [clients] [seconds]
+ */
+public class LedgerLoadTest {
+    private static final String[] OPS = {"POST /deposits", "POST /payments", "GET /balance", "GET /search"};
+
+    public static void main(String[] args) throws Exception {
+        String base = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        List<Future<Recorder>> results = new ArrayList<>();
+        long started = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                results.add(workers.submit(() -> run(http, base, deadline)));
+            }
+        }
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        Recorder total = new Recorder();
+        for (Future<Recorder> f : results) total.merge(f.get());
+        System.out.printf(Locale.ROOT, "%d clients, %.1f s: %,d requests, %,.0f req/s, %d errors%n",
+                clients, elapsed, total.count(), total.count() / elapsed, total.errors);
+        System.out.printf("%-16s %10s %10s %10s %10s%n", "endpoint", "requests", "p50 ms", "p99 ms", "max ms");
+        for (int op = 0; op < OPS.length; op++) {
+            long[] lat = total.sorted(op);
+            if (lat.length == 0) continue;
+            System.out.printf(Locale.ROOT, "%-16s %,10d %10.2f %10.2f %10.2f%n", OPS[op], lat.length,
+                    percentile(lat, 50), percentile(lat, 99), lat[lat.length - 1] / 1e6);
+        }
+        long[] all = total.sortedAll();
+        if (all.length > 0) {
+            System.out.printf(Locale.ROOT, "%-16s %,10d %10.2f %10.2f %10.2f%n", "all", all.length,
+                    percentile(all, 50), percentile(all, 99), all[all.length - 1] / 1e6);
+        }
+    }
+
+    private static Recorder run(HttpClient http, String base, long deadline) {
+        Recorder rec = new Recorder();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            int pick = random.nextInt(10);
+            int op = pick < 2 ? 0 : pick < 4 ? 1 : pick < 8 ? 2 : 3;
+            HttpRequest request = switch (op) {
+                case 0, 1 -> HttpRequest.newBuilder(URI.create(base + (op == 0 ? "/deposits" : "/payments")))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(form(
+                                "description", "load test " + random.nextInt(100),
+                                "vendor", LedgerDataGenerator.VENDORS[random.nextInt(LedgerDataGenerator.VENDORS.length)],
+                                "category", LedgerDataGenerator.CATEGORIES[random.nextInt(LedgerDataGenerator.CATEGORIES.length)],
+                                "amount", String.valueOf(1 + random.nextInt(500)))))
+                        .build();
+                case 2 -> HttpRequest.newBuilder(URI.create(base + "/balance")).GET().build();
+                default -> HttpRequest.newBuilder(URI.create(base + "/search?limit=10&vendor="
+                        + URLEncoder.encode(LedgerDataGenerator.VENDORS[random.nextInt(LedgerDataGenerator.VENDORS.length)]
+                        .toLowerCase(), StandardCharsets.UTF_8))).GET().build();
+            };
+            long t0 = System.nanoTime();
+            try {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 400) rec.errors++;
+            } catch (Exception e) {
+                rec.errors++;
+            }
+            rec.add(op, System.nanoTime() - t0);
+        }
+        return rec;
+    }
+
+    private static String form(String... pairs) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (sb.length() > 0) sb.append('&');
+            sb.append(pairs[i]).append('=').append(URLEncoder.encode(pairs[i + 1], StandardCharsets.UTF_8));
+        }
+        return sb.toString();
+    }
+
+    // Nearest-rank percentile of sorted nanos, in ms
+    private static double percentile(long[] sorted, int p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    /**
+     * Latencies of one worker, per endpoint, in growable primitive arrays
+     */
+    private static class Recorder {
+        private final long[][] nanos = new long[OPS.length][256];
+        private final int[] counts = new int[OPS.length];
+        int errors;
+
+        void add(int op, long latency) {
+            if (counts[op] == nanos[op].length) nanos[op] = Arrays.copyOf(nanos[op], counts[op] * 2);
+            nanos[op][counts[op]++] = latency;
+        }
+
+        void merge(Recorder other) {
+            for (int op = 0; op < OPS.length; op++) {
+                for (int i = 0; i < other.counts[op]; i++) add(op, other.nanos[op][i]);
+            }
+            errors += other.errors;
+        }
+
+        long count() {
+            long n = 0;
+            for (int c : counts) n += c;
+            return n;
+        }
+
+        long[] sorted(int op) {
+            long[] out = Arrays.copyOf(nanos[op], counts[op]);
+            Arrays.sort(out);
+            return out;
+        }
+
+        long[] sortedAll() {
+            long[] out = new long[(int) count()];
+            int at = 0;
+            for (int op = 0; op < OPS.length; op++) {
+                System.arraycopy(nanos[op], 0, out, at, counts[op]);
+                at += counts[op];
+            }
+            Arrays.sort(out);
+            return out;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.pluralsight.bench;
+
+import com.pluralsight.Transaction;
+import com.pluralsight.io.GroupCommitWriter;
+import com.pluralsight.io.LedgerLog;
+import com.pluralsight.store.ColumnarLedgerStore;
+import com.pluralsight.store.ConcurrentLedgerStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Durable appends from 8 threads at once: opening, writing and closing the
+ * file for every transaction (what the app used to do) against the log's
+ * group-commit writer, which puts concurrent flushes into one write (and one
+ * fsync in FSYNC mode).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class LedgerLogBenchmark {
+    private static final int POOL = 4096; // power of two
+
+    @Param({"FLUSH", "FSYNC"})
+    public GroupCommitWriter.Durability durability;
+
+    private Path file;
+    private byte[][] lines;
+    private Transaction[] rows;
+    private ConcurrentLedgerStore store;
+    private LedgerLog log;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        LedgerDataGenerator generator = new LedgerDataGenerator(POOL, LedgerDataGenerator.SEED);
+        rows = new Transaction[POOL];
+        lines = new byte[POOL][];
+        for (int i = 0; i < POOL; i++) {
+            rows[i] = generator.next();
+            lines[i] = (rows[i].toCsv() + "\n").getBytes(StandardCharsets.UTF_8);
+        }
+        file = Files.createTempFile("ledger-log-bench", ".csv");
+        store = new ConcurrentLedgerStore(new ColumnarLedgerStore());
+        log = new LedgerLog(file, 0, new BitSet(), durability, 0);
+        store.addListener(log);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        log.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void openWriteClosePerRow() throws IOException {
+        byte[] line = lines[next.getAndIncrement() & (POOL - 1)];
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            out.write(ByteBuffer.wrap(line));
+            if (durability == GroupCommitWriter.Durability.FSYNC) out.force(false);
+        }
+    }
+
+    @Benchmark
+    public void groupCommit() throws IOException {
+        store.append(rows[next.getAndIncrement() & (POOL - 1)]);
+        log.flush();
+    }
+}
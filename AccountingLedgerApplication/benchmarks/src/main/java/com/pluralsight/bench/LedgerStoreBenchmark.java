@@ -0,0 +1,115 @@
+package com.pluralsight.bench;
+
+import com.pluralsight.Transaction;
+import com.pluralsight.io.LedgerExporter;
+import com.pluralsight.io.MappedLedgerLoader;
+import com.pluralsight.store.BalanceRange;
+import com.pluralsight.store.ColumnarLedgerStore;
+import com.pluralsight.store.LedgerQuery;
+import com.pluralsight.store.LedgerStore;
+import com.pluralsight.store.LedgerTime;
+import com.pluralsight.store.QueryResult;
+import com.pluralsight.ui.UIUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-ledger operations at 10k, 1M and 10M rows. The app's private methods
+ * map onto the store calls they now delegate to: loadTransactions to
+ * {@link MappedLedgerLoader#load}, calculateBalances to
+ * {@link LedgerStore#recalculateBalances()}, searchTransactions to
+ * {@link LedgerStore#search}, and filterDeposits/filterPayments to
+ * {@link LedgerStore#select}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Xmx8g"})
+public class LedgerStoreBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    private Path file;
+    private LedgerStore store;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = LedgerDataGenerator.csv(rows);
+        store = new ColumnarLedgerStore();
+        new MappedLedgerLoader().load(file, store);
+    }
+
+    @Benchmark
+    public LedgerStore load() throws IOException {
+        LedgerStore fresh = new ColumnarLedgerStore();
+        new MappedLedgerLoader().load(file, fresh);
+        return fresh;
+    }
+
+    @Benchmark
+    public long recalculateBalances() {
+        store.recalculateBalances();
+        return store.balanceCents();
+    }
+
+    @Benchmark
+    public List<Transaction> searchDateRange() {
+        return store.search("2019-01-01", "2019-12-31", "", "");
+    }
+
+    @Benchmark
+    public List<Transaction> searchDescription() {
+        return store.search("", "", "membership", "");
+    }
+
+    @Benchmark
+    public List<Transaction> searchAllFilters() {
+        return store.search("2018-01-01", "2020-12-31", "coffee", "starbucks");
+    }
+
+    @Benchmark
+    public QueryResult queryTopPayments() {
+        // Bounded heap of 20 over every payment, no full sort
+        return store.query(LedgerQuery.parse("payments top:20"));
+    }
+
+    @Benchmark
+    public QueryResult queryVendorInYear() {
+        return store.query(LedgerQuery.parse("vendor:starbucks from:2019-01-01 to:2019-12-31 amount<-20 limit:50"));
+    }
+
+    @Benchmark
+    public BalanceRange balanceBetween() {
+        return store.balanceBetween(LedgerTime.toEpochSecond("2019-01-01", "00:00:00"),
+                LedgerTime.toEpochSecond("2019-12-31", "23:59:59"));
+    }
+
+    @Benchmark
+    public List<Transaction> filterDeposits() {
+        return store.select(row -> store.amountCents(row) > 0);
+    }
+
+    @Benchmark
+    public List<Transaction> filterPayments() {
+        return store.select(row -> store.amountCents(row) < 0);
+    }
+
+    @Benchmark
+    public String toMarkdown() {
+        return UIUtils.toMarkdown(store.newestFirst());
+    }
+
+    @Benchmark
+    public void exportMarkdownStreaming() throws IOException {
+        // Same document, streamed row by row instead of built in memory
+        LedgerExporter.write(store.newestFirst(), Writer.nullWriter(), LedgerExporter.Format.MARKDOWN, null);
+    }
+}
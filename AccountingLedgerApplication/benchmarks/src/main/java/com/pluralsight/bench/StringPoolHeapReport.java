@@ -0,0 +1,72 @@
+package com.pluralsight.bench;
+
+import com.pluralsight.Transaction;
+import com.pluralsight.store.StringPool;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Heap held by a ledger of Transaction objects parsed with
+ * {@link Transaction#fromCsv}, with {@link StringPool} pooling on and off.
+ * Each setting runs in its own JVM, since the switch is read once at startup.
+ *
+ * java -cp target/benchmarks.jar com.pluralsight.bench.StringPoolHeapReport [rows]
+ */
+public class StringPoolHeapReport {
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        if (args.length > 1 && args[1].equals("--measure")) {
+            measure(rows);
+            return;
+        }
+        long off = Long.parseLong(child(rows, "off").trim().split(" ")[0]);
+        String on = child(rows, "on").trim();
+        long pooled = Long.parseLong(on.split(" ")[0]);
+
+        System.out.printf("%,d rows parsed with Transaction.fromCsv%n", rows);
+        System.out.printf("  without pooling: %,10.1f MB%n", off / 1e6);
+        System.out.printf("  with pooling:    %,10.1f MB  (%s)%n", pooled / 1e6, on.substring(on.indexOf(' ') + 1));
+        System.out.printf("  heap saved:      %,10.1f MB (%.0f%%)%n", (off - pooled) / 1e6, 100.0 * (off - pooled) / off);
+    }
+
+    // Runs this class in a fresh JVM with pooling set to mode and returns what it printed
+    private static String child(int rows, String mode) throws IOException, InterruptedException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process p = new ProcessBuilder(java, "--enable-preview", "-Xmx2g", "-Dledger.stringPool=" + mode,
+                "-cp", System.getProperty("java.class.path"),
+                StringPoolHeapReport.class.getName(), String.valueOf(rows), "--measure")
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        String out;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
+            out = in.readLine();
+        }
+        if (p.waitFor() != 0 || out == null) throw new IOException("Measuring with pooling " + mode + " failed");
+        return out;
+    }
+
+    // Prints "<bytes> <pool sizes>": the heap the parsed rows (and the pools) keep alive
+    private static void measure(int rows) {
+        LedgerDataGenerator generator = new LedgerDataGenerator(rows, LedgerDataGenerator.SEED);
+        List<Transaction> ledger = new ArrayList<>(rows);
+        long before = usedHeap();
+        for (int i = 0; i < rows; i++) {
+            ledger.add(Transaction.fromCsv(generator.next().toCsv()));
+        }
+        long after = usedHeap();
+        System.out.printf("%d %,d dates, %,d times, %,d vendors, %,d categories pooled%n", after - before,
+                StringPool.DATES.size(), StringPool.TIMES.size(), StringPool.VENDORS.size(), StringPool.CATEGORIES.size());
+        if (ledger.size() != rows) throw new IllegalStateException();
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,62 @@
+package com.pluralsight.bench;
+
+import com.pluralsight.Transaction;
+import com.pluralsight.io.CsvRecordParser;
+import com.pluralsight.store.RowBatch;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of reading and writing one CSV line: the original
+ * {@link Transaction#fromCsv(String)}, the byte-level {@link CsvRecordParser}
+ * the loader uses to fill column batches, and {@link Transaction#toCsv()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class TransactionCsvBenchmark {
+    private static final int POOL = 4096; // power of two
+
+    private String[] lines;
+    private byte[][] bytes;
+    private Transaction[] rows;
+    private final CsvRecordParser parser = new CsvRecordParser();
+    private final RowBatch batch = new RowBatch();
+    private int next;
+
+    @Setup
+    public void setup() {
+        LedgerDataGenerator generator = new LedgerDataGenerator(POOL, LedgerDataGenerator.SEED);
+        lines = new String[POOL];
+        bytes = new byte[POOL][];
+        rows = new Transaction[POOL];
+        for (int i = 0; i < POOL; i++) {
+            rows[i] = generator.next();
+            lines[i] = rows[i].toCsv();
+            bytes[i] = lines[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public Transaction fromCsv() {
+        return Transaction.fromCsv(lines[next++ & (POOL - 1)]);
+    }
+
+    @Benchmark
+    public RowBatch readIntoBatch() {
+        int i = next++ & (POOL - 1);
+        if (i == 0) batch.clear();
+        parser.read(bytes[i], 0, bytes[i].length, batch);
+        return batch;
+    }
+
+    @Benchmark
+    public String toCsv() {
+        return rows[next++ & (POOL - 1)].toCsv();
+    }
+}
@@ -1,34 +1,127 @@
 package com.pluralsight;
 
+import com.pluralsight.account.AccountDirectory;
+import com.pluralsight.io.LedgerCheckpoint;
+import com.pluralsight.io.LedgerFiles;
+import com.pluralsight.io.LedgerExporter;
+import com.pluralsight.io.LedgerFormatConverter;
+import com.pluralsight.io.LedgerLog;
+import com.pluralsight.io.LoadProgress;
+import com.pluralsight.io.MappedLedgerLoader;
+import com.pluralsight.metrics.LedgerMetrics;
+import com.pluralsight.metrics.OperationStats;
+import com.pluralsight.server.LedgerServer;
+import com.pluralsight.store.AmountStats;
+import com.pluralsight.store.BalanceRange;
+import com.pluralsight.store.CategorySummary;
+import com.pluralsight.store.ColumnarLedgerStore;
+import com.pluralsight.store.ConcurrentLedgerStore;
+import com.pluralsight.store.LedgerQuery;
+import com.pluralsight.store.LedgerStore;
+import com.pluralsight.store.LedgerTime;
+import com.pluralsight.store.QueryResult;
+import com.pluralsight.ui.BalanceSparkline;
+import com.pluralsight.ui.TablePager;
 import com.pluralsight.ui.UIUtils;
 
 import java.io.*;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static com.pluralsight.ui.UIUtils.*;
 
 public class AccountingLedgerApp {
     // for storing transactions
     private static final String FILE_NAME = "transactions.csv";
-    // In-memory list of all transactions
-    private static List<Transaction> transactions = new ArrayList<>();
+    // Optional binary copy of FILE_NAME; used for loading while it is up to date
+    private static final String SEGMENT_NAME = "transactions.ldgb";
+    // The ledger in use: FILE_NAME, or the owner's account file with --data-dir
+    private static Path ledgerFile = Path.of(FILE_NAME);
+    private static Path segmentFile = Path.of(SEGMENT_NAME);
+    // One ledger per account (--data-dir mode only), for the cross-account views
+    private static AccountDirectory accounts;
+    private static String account;
+    // In-memory ledger of all transactions (columnar, oldest row first)
+    private static final LedgerStore ledger = new ColumnarLedgerStore();
     // Scanner for reading user input
     private static Scanner scanner = new Scanner(System.in);
     // Owner or account title for customization
     private static String owner;
+    // Stats from the most recent load, shown once the background load is in
+    private static MappedLedgerLoader.LoadResult lastLoad;
+    // Append-only persistence for FILE_NAME (rows + tombstones); null if the file could not be read
+    private static LedgerLog log;
+    // Set by the loader when the file could not be read: no changes this session, so the file stays as it is
+    private static boolean readOnly;
+    // Bucketed balance chart shown after every action, kept current by store events
+    private static BalanceSparkline sparkline;
+    // Background load of the ledger; the store belongs to the loader thread until it completes
+    private static CompletableFuture<Void> loading;
+    private static final LoadProgress loadProgress = new LoadProgress();
+    // Set on the menu thread once it has taken the store over from the loader
+    private static boolean loaded;
+    // Deposits and payments entered while loading; appended (and saved) once the load is in
+    private static final List<Transaction> staged = new ArrayList<>();
+    // Shown for transactions entered before the ledger finished loading
+    private static final String STAGED_NOTE = " (it will be saved as soon as loading finishes)";
+    // HTTP port for --server mode
+    private static final int DEFAULT_PORT = 8080;
+    // How often --server mode checkpoints the ledger (when it changed)
+    private static final int CHECKPOINT_MINUTES = 5;
 
     public static void main(String[] args) {
+        // Hot-path counters and latencies, readable over JMX as com.pluralsight:type=LedgerMetrics
+        LedgerMetrics.registerMBean();
+
+        // Headless mode: java -jar ... --server [port] [--bind address]
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port = DEFAULT_PORT;
+            String bind = null;
+            for (int i = 1; i < args.length; i++) {
+                if (args[i].equals("--bind") && i + 1 < args.length) {
+                    bind = args[++i];
+                } else {
+                    port = Integer.parseInt(args[i]);
+                }
+            }
+            runServer(port, bind);
+            return;
+        }
+
+        // Account mode: java -jar ... --data-dir [dir], one ledger file per account
+        if (args.length > 0 && args[0].equals("--data-dir")) {
+            accounts = new AccountDirectory(Path.of(args.length > 1 ? args[1] : AccountDirectory.DEFAULT_DIR));
+        }
+
         // 1) Ask for owner/title
         System.out.print(YELLOW + "Enter your name or account title: " + RESET);
         owner = scanner.nextLine().trim();
+        if (accounts != null) {
+            account = AccountDirectory.accountName(owner);
+            ledgerFile = accounts.fileFor(account);
+            segmentFile = accounts.segmentFor(account);
+            try {
+                Files.createDirectories(accounts.getDir());
+            } catch (IOException e) {
+                System.out.println(RED + "❌ Cannot create " + accounts.getDir() + ": " + e.getMessage() + RESET);
+                return;
+            }
+            System.out.println(CYAN + "🏦 Account '" + account + "' (" + ledgerFile + ")" + RESET);
+        }
 
-        // 2) Load past transactions and compute balances with a spinner animation
-        UIUtils.spinner("Loading transactions", () -> {
-            loadTransactions();   // Read from CSV into memory
-            calculateBalances();  // Recalculate running balances for each transaction
+        // 2) Load past transactions in the background; the menu opens right away and shows progress
+        loading = CompletableFuture.runAsync(AccountingLedgerApp::loadTransactions, r -> {
+            Thread t = new Thread(r, "ledger-loader");
+            t.setDaemon(true);
+            t.start();
         });
 
         System.out.println(CYAN + BOLD + "LL      GGGG  TTTTTT   EEEEE  NN   NN " + RESET);
@@ -47,6 +140,12 @@ public class AccountingLedgerApp {
      */
     private static void showHomeMenu() {
         while (true) {
+            if (!loaded && loading.isDone()) finishLoading();
+            if (!loaded) {
+                System.out.println("\n" + YELLOW + "⏳ Loading transactions " + UIUtils.progressBar(loadProgress.fraction(), 20)
+                        + " (deposits and payments work already)" + RESET);
+            }
+
             // Print menu options
             System.out.println("\n" + BOLD + CYAN + "=== Home Screen ===" + RESET);
             System.out.println(GREEN  + "D) Add Deposit 💰" + RESET);
@@ -54,6 +153,9 @@ public class AccountingLedgerApp {
             System.out.println(YELLOW + "C) Check Balance 📈" + RESET);
             System.out.println(CYAN   + "S) Spending by Category 💲" + RESET);
             System.out.println(BLUE   + "L) Ledger 📖" + RESET);
+            if (accounts != null) {
+                System.out.println(GREEN + "A) All Accounts 🏦" + RESET);
+            }
             System.out.println(MAGENTA+ "X) Exit 💥" + RESET);
             System.out.print(BOLD + "Choose an option: " + RESET);
 
@@ -64,11 +166,19 @@ public class AccountingLedgerApp {
             switch (choice) {
                 case "D": addDeposit(); break;                     // Add a deposit transaction
                 case "P": makePayment(); break;                   // Record an outgoing payment
-                case "C": printCurrentBalance(); break;           // Show current balance
-                case "S": checkSpendingByCategory(); break;       // Show spending by a specific category
-                case "L": showLedgerMenu(); break;                // Enter ledger submenu
+                case "C": awaitLoad(); printCurrentBalance(); break;      // Show current balance
+                case "S": awaitLoad(); checkSpendingByCategory(); break;  // Show spending by a specific category
+                case "L": awaitLoad(); showLedgerMenu(); break;           // Enter ledger submenu
+                case "A": awaitLoad(); showAllAccounts(); break;          // Totals across every account (--data-dir)
+                case "METRICS": printMetrics(); break;                    // Hidden: latency percentiles per operation
                 case "X":                                        // Exit the application
+                    awaitLoad();                                   // Everything entered so far gets saved
                     printSummary();                                // Print deposit/payment summary
+                    if (log != null) {
+                        log.close();                               // Let a running compaction finish
+                        saveCheckpoint(ledger, log);               // Next start replays only what comes after
+                        saveSegment();                             // Refresh the binary copy, if kept
+                    }
                     System.out.println(YELLOW + "👋🏾 Goodbye, " + owner + "!" + RESET);
                     return;                                        // Break out of the loop and end program
                 default:
@@ -77,7 +187,7 @@ public class AccountingLedgerApp {
             }
 
             // After each action, display a sparkline chart of balances
-            UIUtils.printBalanceSparkline(transactions);
+            if (loaded) sparkline.print();
         }
     }
 
@@ -91,6 +201,9 @@ public class AccountingLedgerApp {
             System.out.println(GREEN  + "D) Deposits Only 📈" + RESET);
             System.out.println(RED    + "P) Payments Only 📉" + RESET);
             System.out.println(YELLOW + "S) Search 🔍" + RESET);
+            System.out.println(YELLOW + "Q) Query ⚡" + RESET);
+            System.out.println(CYAN   + "B) Balance As Of 🕰️" + RESET);
+            System.out.println(CYAN   + "E) Export 💾" + RESET);
             System.out.println(RED    + "R) Remove Transaction(s) ❌" + RESET);
             System.out.println(MAGENTA+ "H) Home 🏠" + RESET);
             System.out.print(BOLD + "Choose an option: " + RESET);
@@ -99,17 +212,26 @@ public class AccountingLedgerApp {
 
             switch (choice) {
                 case "A":
-                    UIUtils.printTable(transactions);      // Show all transactions
+                    showTable(ledger.newestFirst());      // Show all transactions
                     break;
                 case "D":
-                    UIUtils.printTable(filterDeposits()); // Show only positive amounts
+                    showTable(filterDeposits());          // Show only positive amounts
                     break;
                 case "P":
-                    UIUtils.printTable(filterPayments()); // Show only negative amounts
+                    showTable(filterPayments());          // Show only negative amounts
                     break;
                 case "S":
                     searchTransactions();                  // Interactive search by date/desc/vendor
                     break;
+                case "Q":
+                    runQuery();                           // One-line query with sort and limit
+                    break;
+                case "B":
+                    showBalanceAsOf();                    // Balance at a past date, or over a range
+                    break;
+                case "E":
+                    exportTransactions();                 // Stream rows to a Markdown/CSV/JSONL file
+                    break;
                 case "R":
                     deleteTransaction();                  // Remove transactions based on criteria
                     break;
@@ -122,44 +244,193 @@ public class AccountingLedgerApp {
     }
 
     /**
-     * Reads transactions from the CSV file into the in-memory list
+     * Prints short lists in full and pages through anything longer than one screen
+     */
+    private static void showTable(List<Transaction> rows) {
+        if (rows.size() <= TablePager.DEFAULT_PAGE_SIZE) {
+            UIUtils.printTable(rows);
+        } else {
+            new TablePager(rows, scanner, TablePager.DEFAULT_PAGE_SIZE).run();
+        }
+    }
+
+    /**
+     * Appends a new transaction and saves it, or, while the ledger is still
+     * loading, holds it until the load is in; returns true if saved now
+     */
+    private static boolean record(Transaction t) {
+        if (!loaded && loading.isDone()) finishLoading();
+        if (!loaded) {
+            staged.add(t);
+            return false;
+        }
+        ledger.append(t);
+        saveChanges();
+        return true;
+    }
+
+    /**
+     * Waits for the background load (showing its progress) before something
+     * that needs every row: balances, search, reports
+     */
+    private static void awaitLoad() {
+        if (loaded) return;
+        if (!loading.isDone()) UIUtils.waitWithProgress("Loading transactions", loading, loadProgress::fraction);
+        finishLoading();
+    }
+
+    /**
+     * Takes the store over from the loader: reports the load, then appends and
+     * saves what was entered meanwhile, oldest first
+     */
+    private static void finishLoading() {
+        loading.join();
+        loaded = true;
+        if (lastLoad != null) {
+            System.out.println(CYAN + "📂 Loaded " + lastLoad + RESET);
+        }
+        if (staged.isEmpty()) return;
+        if (readOnly) {
+            System.out.println(RED + "❌ " + staged.size() + " transaction(s) entered while loading were not saved:"
+                    + " the ledger file could not be read." + RESET);
+            staged.clear();
+            return;
+        }
+        for (Transaction t : staged) ledger.append(t);
+        saveChanges();
+        System.out.println(GREEN + "✅ Saved " + staged.size() + " transaction(s) entered while loading" + RESET);
+        staged.clear();
+    }
+
+    /**
+     * True (after saying so) when changes are off because the ledger file could not be read
+     */
+    private static boolean refuseChanges() {
+        if (!loaded && loading.isDone()) finishLoading();
+        if (!readOnly) return false;
+        System.out.println(RED + "❌ The ledger file could not be read, so changes are off this session"
+                + " (the file is left as it is)." + RESET);
+        return true;
+    }
+
+    /**
+     * Reads transactions from the CSV file (or its binary copy, when that is
+     * at least as new) into the in-memory ledger and attaches the append-only
+     * log that persists later changes
      */
     private static void loadTransactions() {
-        File file = new File(FILE_NAME);
-        // If file doesn't exist, skip loading
-        if (!file.exists()) return;
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                try {
-                    // Parse CSV line into Transaction and insert at beginning
-                    transactions.add(0, Transaction.fromCsv(line));
-                } catch (IllegalArgumentException ignored) {
-                }
+        Path file = ledgerFile;
+        Path segment = segmentFile;
+        try {
+            ledger.clear();
+            lastLoad = LedgerFiles.load(file, segment, ledger, loadProgress);
+            log = new LedgerLog(file, lastLoad, ledger.slotCount());
+            ledger.addListener(log);
+        } catch (IOException e) {
+            // Appending with ordinals restarted at 0 would point later tombstones at the wrong rows
+            System.out.println(RED + "❌ Error loading transactions: " + e.getMessage()
+                    + " (read-only session; the file is left as it is)" + RESET);
+            ledger.clear();
+            lastLoad = null;
+            readOnly = true;
+        }
+        sparkline = new BalanceSparkline(ledger, BalanceSparkline.terminalWidth());
+        ledger.addListener(sparkline);
+    }
+
+    /**
+     * Serves the ledger over HTTP instead of the menus; requests from many
+     * clients share one thread-safe store and the same append-only log.
+     * Only this machine can connect unless bind names another address.
+     */
+    private static void runServer(int port, String bind) {
+        Path file = Path.of(FILE_NAME);
+        ColumnarLedgerStore columns = new ColumnarLedgerStore();
+        LedgerLog serverLog;
+        try {
+            MappedLedgerLoader.LoadResult loaded = LedgerFiles.load(file, Path.of(SEGMENT_NAME), columns);
+            System.out.println(CYAN + "📂 Loaded " + loaded + RESET);
+            serverLog = new LedgerLog(file, loaded, columns.slotCount());
+        } catch (IOException e) {
+            // Serving would append with ordinals restarted at 0 and point later tombstones at the wrong rows
+            System.out.println(RED + "❌ Error loading transactions: " + e.getMessage()
+                    + " (not starting, so the file is left as it is)" + RESET);
+            return;
+        }
+        ConcurrentLedgerStore shared = new ConcurrentLedgerStore(columns);
+        shared.addListener(serverLog);
+
+        LedgerServer server = new LedgerServer(shared, serverLog);
+        try {
+            if (bind == null) {
+                server.start(port);
+            } else {
+                server.start(InetAddress.getByName(bind), port);
             }
         } catch (IOException e) {
-            System.out.println(RED + "❌ Error loading transactions: " + e.getMessage() + RESET);
+            System.out.println(RED + "❌ Could not start the server: " + e.getMessage() + RESET);
+            return;
+        }
+        LedgerLog finalLog = serverLog;
+        // Checkpoints need the write lock: computing category totals fills lazy caches
+        Runnable checkpoint = () -> shared.write(store -> saveCheckpoint(store, finalLog));
+        ScheduledExecutorService checkpoints = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ledger-checkpoint");
+            t.setDaemon(true);
+            return t;
+        });
+        checkpoints.scheduleWithFixedDelay(checkpoint, CHECKPOINT_MINUTES, CHECKPOINT_MINUTES, TimeUnit.MINUTES);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            checkpoints.shutdown();
+            finalLog.close(); // let a running compaction finish
+            checkpoint.run();
+        }));
+        System.out.println(GREEN + "🌐 Ledger server listening on http://" + (bind == null ? "localhost" : bind)
+                + ":" + server.getPort() + " (Ctrl+C to stop)" + RESET);
+        if (bind != null) {
+            System.out.println(YELLOW + "⚠️  Anyone who can reach " + bind + " can add and delete transactions" + RESET);
         }
     }
 
     /**
-     * Appends a single transaction to the CSV file
+     * Saves a startup checkpoint of store unless the log has not moved since
+     * the last one; returns true if one was written
      */
-    private static void saveTransaction(Transaction t) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(FILE_NAME, true))) {
-            bw.write(t.toCsv());   // Convert to CSV format and write
-            bw.newLine();
+    private static boolean saveCheckpoint(LedgerStore store, LedgerLog log) {
+        Path file = ledgerFile;
+        try {
+            if (LedgerCheckpoint.isCurrent(file, log.position())) return false;
+            LedgerCheckpoint.write(store, log, file);
+            return true;
         } catch (IOException e) {
-            System.out.println(RED + "❌ Error saving transaction: " + e.getMessage() + RESET);
+            System.out.println(RED + "❌ Error saving checkpoint: " + e.getMessage() + RESET);
+            return false;
         }
     }
 
     /**
-     * Overwrites the entire CSV file with current in-memory transactions
+     * Rewrites the binary copy on exit, but only if the user keeps one
+     * (created with LedgerFormatConverter)
      */
-    private static void saveAllTransactions() {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(FILE_NAME))) {
-            for (Transaction t : transactions) pw.println(t.toCsv());
+    private static void saveSegment() {
+        Path segment = segmentFile;
+        if (!Files.exists(segment)) return;
+        try {
+            LedgerFormatConverter.snapshot(ledger, log, segment);
+        } catch (IOException e) {
+            System.out.println(RED + "❌ Error saving " + segment + ": " + e.getMessage() + RESET);
+        }
+    }
+
+    /**
+     * Appends new rows and deletion tombstones to the CSV file in one write;
+     * the file itself is only rewritten by the log's background compaction
+     */
+    private static void saveChanges() {
+        if (log == null) return;
+        try {
+            log.flush();
         } catch (IOException e) {
             System.out.println(RED + "❌ Error saving transactions: " + e.getMessage() + RESET);
         }
@@ -169,12 +440,10 @@ public class AccountingLedgerApp {
      * Prompts the user to add a deposit transaction
      */
     private static void addDeposit() {
-        System.out.print("Description: ");
-        String desc = scanner.nextLine().trim();
-        System.out.print("Savings? (yes/no): ");
-        String ven = scanner.nextLine().trim();
-        System.out.print("Category (e.g. Food, Rent): ");
-        String cat = scanner.nextLine().trim();
+        if (refuseChanges()) return;
+        String desc = readField("Description: ");
+        String ven = readField("Savings? (yes/no): ");
+        String cat = readField("Category (e.g. Food, Rent): ");
 
         double amt;
         while (true) {
@@ -190,23 +459,19 @@ public class AccountingLedgerApp {
         // Get current date/time and build Transaction
         String[] dt = currentDateTime();
         Transaction t = new Transaction(dt[0], dt[1], desc, ven, cat, amt);
-        // Add at beginning of list, recalculate balances, and persist
-        transactions.add(0, t);
-        calculateBalances();
-        saveTransaction(t);
-        System.out.println(GREEN + "✅ 💵 Deposit recorded!" + RESET);
+        // Append as the newest row (the store extends the running balance and queues it for the log) and persist
+        boolean saved = record(t);
+        System.out.println(GREEN + "✅ 💵 Deposit recorded!" + (saved ? "" : STAGED_NOTE) + RESET);
     }
 
     /**
      * Prompts to record a payment (negative amount)
      */
     private static void makePayment() {
-        System.out.print("Description: ");
-        String desc = scanner.nextLine().trim();
-        System.out.print("Vendor: ");
-        String ven = scanner.nextLine().trim();
-        System.out.print("Category (e.g. Utilities, Subscription): ");
-        String cat = scanner.nextLine().trim();
+        if (refuseChanges()) return;
+        String desc = readField("Description: ");
+        String ven = readField("Vendor: ");
+        String cat = readField("Category (e.g. Utilities, Subscription): ");
 
         double amt;
         while (true) {
@@ -221,28 +486,34 @@ public class AccountingLedgerApp {
         }
         String[] dt = currentDateTime();
         Transaction t = new Transaction(dt[0], dt[1], desc, ven, cat, amt);
-        transactions.add(0, t);
-        calculateBalances();
-        saveTransaction(t);
-        System.out.println(RED + "❌ 💸 Payment recorded!" + RESET);
+        boolean saved = record(t);
+        System.out.println(RED + "❌ 💸 Payment recorded!" + (saved ? "" : STAGED_NOTE) + RESET);
+    }
+
+    /**
+     * Reads one text field, asking again while it holds a '|' (the file's delimiter)
+     */
+    private static String readField(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String value = scanner.nextLine().trim();
+            if (Transaction.isValidField(value)) return value;
+            System.out.println(RED + "❌ '|' is not allowed here; please try again." + RESET);
+        }
     }
 
     /**
      * Returns only deposits (amount > 0)
      */
     private static List<Transaction> filterDeposits() {
-        return transactions.stream()
-                .filter(t -> t.getAmount() > 0)
-                .collect(Collectors.toList());
+        return ledger.select(row -> ledger.amountCents(row) > 0);
     }
 
     /**
      * Returns only payments (amount < 0)
      */
     private static List<Transaction> filterPayments() {
-        return transactions.stream()
-                .filter(t -> t.getAmount() < 0)
-                .collect(Collectors.toList());
+        return ledger.select(row -> ledger.amountCents(row) < 0);
     }
 
     /**
@@ -256,24 +527,15 @@ public class AccountingLedgerApp {
         }
     }
 
-    /**
-     * Calculates running balance for each transaction in chronological order
-     */
-    private static void calculateBalances() {
-        double bal = 0;
-        for (int i = transactions.size() - 1; i >= 0; i--) {
-            bal += transactions.get(i).getAmount();
-            transactions.get(i).setBalance(bal);
-        }
-    }
-
     /**
      * Prints a summary of total deposit payments and ending balance
      */
     private static void printSummary() {
-        double deposits = transactions.stream().filter(t -> t.getAmount() > 0).mapToDouble(Transaction::getAmount).sum();
-        double payments = transactions.stream().filter(t -> t.getAmount() < 0).mapToDouble(Transaction::getAmount).sum();
-        double ending = transactions.isEmpty() ? 0 : transactions.get(0).getBalance();
+        // One kernel pass for both totals
+        AmountStats stats = ledger.amountStats();
+        double deposits = stats.getPositiveCents() / 100.0;
+        double payments = stats.getNegativeCents() / 100.0;
+        double ending = ledger.balanceCents() / 100.0;
         System.out.printf(
                 "\n" + BOLD + CYAN + "=== Summary ===" + RESET +
                         "%nDeposits:  $%.2f%nPayments:  $%.2f%nEnding Balance: $%.2f%n",
@@ -281,27 +543,164 @@ public class AccountingLedgerApp {
         );
     }
 
+    /**
+     * Hidden "metrics" command: calls, rows, bytes and p50/p95/p99/max latency
+     * of every timed operation since startup
+     */
+    private static void printMetrics() {
+        System.out.println("\n" + BOLD + CYAN + "=== Metrics ===" + RESET);
+        System.out.printf(BOLD + "%-8s %8s %10s %10s %10s %10s %10s %10s%n" + RESET,
+                "Op", "Calls", "Rows", "Bytes", "p50", "p95", "p99", "Max");
+        for (OperationStats op : LedgerMetrics.snapshot()) {
+            System.out.printf("%-8s %8d %10d %10s %10s %10s %10s %10s%n", op.getName(), op.getCount(), op.getRows(),
+                    formatBytes(op.getBytes()), formatNanos(op.getP50Nanos()), formatNanos(op.getP95Nanos()),
+                    formatNanos(op.getP99Nanos()), formatNanos(op.getMaxNanos()));
+        }
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000) return nanos + " ns";
+        if (nanos < 1_000_000) return String.format("%.1f µs", nanos / 1e3);
+        if (nanos < 1_000_000_000) return String.format("%.1f ms", nanos / 1e6);
+        return String.format("%.2f s", nanos / 1e9);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+
     /**
      * Prints the current
      */
     private static void printCurrentBalance() {
-        calculateBalances(); // Ensure balances are up-to-date
-        double bal = transactions.isEmpty() ? 0 : transactions.get(0).getBalance();
+        double bal = ledger.balanceCents() / 100.0; // O(1): the balance index tracks the total
         System.out.printf(GREEN + "💼 Current balance: $%.2f%n" + RESET, bal);
     }
 
     /**
-     * Prompts for a category
+     * Balance at the end of a past date (or at a time on it); with an end date,
+     * the opening and closing balance of the range and the net change. Both
+     * come from the date index without walking the rows in between.
+     */
+    private static void showBalanceAsOf() {
+        System.out.print("Date (yyyy-MM-dd): ");
+        String date = scanner.nextLine().trim();
+        System.out.print("Time (HH:mm:ss) or leave blank for end of day: ");
+        String time = scanner.nextLine().trim();
+        System.out.print("End Date (yyyy-MM-dd) for a range or leave blank: ");
+        String end = scanner.nextLine().trim();
+
+        boolean isRange = !end.isEmpty();
+        long from, to;
+        try {
+            long day = LedgerTime.parseEpochDay(date);
+            if (!isRange) {
+                from = Long.MIN_VALUE;
+                to = time.isEmpty() ? (day + 1) * LedgerTime.SECONDS_PER_DAY - 1
+                        : day * LedgerTime.SECONDS_PER_DAY + LedgerTime.parseSecondOfDay(time);
+            } else {
+                // A range runs from the time (or start) of the first date to the end of the last
+                from = day * LedgerTime.SECONDS_PER_DAY + (time.isEmpty() ? 0 : LedgerTime.parseSecondOfDay(time));
+                to = (LedgerTime.parseEpochDay(end) + 1) * LedgerTime.SECONDS_PER_DAY - 1;
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(RED + "❌ " + e.getMessage() + RESET);
+            return;
+        }
+        if (to < from) {
+            System.out.println(RED + "❌ End Date is before the start." + RESET);
+            return;
+        }
+
+        if (!isRange) {
+            String at = date + " " + (time.isEmpty() ? "23:59:59" : LedgerTime.formatTime(to));
+            System.out.printf(GREEN + "🕰️ Balance as of %s: $%.2f%n" + RESET, at, ledger.balanceAsOfCents(to) / 100.0);
+            return;
+        }
+        BalanceRange range = ledger.balanceBetween(from, to);
+        System.out.printf(CYAN + "Opening balance (%s %s): $%,.2f%n" + RESET,
+                date, LedgerTime.formatTime(from), range.getOpeningCents() / 100.0);
+        System.out.printf(CYAN + "Closing balance (%s 23:59:59): $%,.2f%n" + RESET, end, range.getClosingCents() / 100.0);
+        String color = range.getNetCents() < 0 ? RED : GREEN;
+        System.out.printf(color + "Net change: %+,.2f over %d transaction(s)%n" + RESET,
+                range.getNetCents() / 100.0, range.getCount());
+    }
+
+    /**
+     * Prompts for a category; blank shows every category plus a spending chart
      */
     private static void checkSpendingByCategory() {
-        System.out.print("Enter category to check spending: ");
+        System.out.print("Enter category to check spending (blank for all): ");
         String cat = scanner.nextLine().trim().toLowerCase();
-        // Sum all negative amounts matching the given category
-        double total = transactions.stream()
-                .filter(t -> t.getCategory().equalsIgnoreCase(cat) && t.getAmount() < 0)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+        if (cat.isEmpty()) {
+            printAllCategories();
+            return;
+        }
+        // Read from the per-category totals the store keeps up to date
+        CategorySummary summary = ledger.category(cat);
+        double total = summary == null ? 0 : summary.getPaymentsCents() / 100.0;
         System.out.printf(RED + "Spent in '%s': $%.2f%n" + RESET, cat, -total);
+        if (summary != null) {
+            System.out.printf("%d transactions, deposits $%.2f, smallest $%.2f, largest $%.2f%n",
+                    summary.getCount(), summary.getDepositsCents() / 100.0,
+                    summary.getMinCents() / 100.0, summary.getMaxCents() / 100.0);
+        }
+    }
+
+    /**
+     * Report of every category, biggest spender first, followed by the bar chart
+     */
+    private static void printAllCategories() {
+        List<CategorySummary> all = ledger.categories();
+        if (all.isEmpty()) {
+            System.out.println(YELLOW + "No transactions to summarize." + RESET);
+            return;
+        }
+        all.sort(Comparator.comparingLong(CategorySummary::getPaymentsCents));
+        UIUtils.printCategoryReport(all);
+
+        Map<String, Double> spend = new LinkedHashMap<>();
+        for (CategorySummary c : all) {
+            if (c.getPaymentsCents() < 0) spend.put(c.getName(), c.getPaymentsCents() / 100.0);
+        }
+        if (!spend.isEmpty()) UIUtils.printSpendingChart(spend);
+    }
+
+    /**
+     * Balance of every account in the data directory plus the combined category
+     * report; the other accounts are read in parallel the first time
+     */
+    private static void showAllAccounts() {
+        if (accounts == null) {
+            System.out.println(RED + "❌ Start with --data-dir to keep one ledger per account." + RESET);
+            return;
+        }
+        accounts.attach(account, ledger);
+        IOException[] failure = new IOException[1];
+        UIUtils.spinner("Loading accounts", () -> {
+            try {
+                accounts.loadAll();
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) {
+            System.out.println(RED + "❌ Error loading accounts: " + failure[0].getMessage() + RESET);
+            return;
+        }
+
+        Map<String, Long> balances = accounts.balancesCents();
+        System.out.println(BOLD + "\n=== All Accounts ===" + RESET);
+        long total = 0;
+        for (Map.Entry<String, Long> e : balances.entrySet()) {
+            String marker = e.getKey().equals(account) ? " ◀" : "";
+            System.out.printf("%-24s $%,15.2f%s%n", e.getKey(), e.getValue() / 100.0, marker);
+            total += e.getValue();
+        }
+        System.out.printf(BOLD + "%-24s $%,15.2f%n" + RESET, balances.size() + " accounts", total / 100.0);
+        UIUtils.printCategoryReport(accounts.categories());
     }
 
     /**
@@ -328,47 +727,135 @@ public class AccountingLedgerApp {
         System.out.print("Vendor contains or leave blank: ");
         String ven = scanner.nextLine().trim().toLowerCase();
 
-        List<Transaction> filtered = new ArrayList<>(transactions);
-        // Remove transactions before the start date if provided
-        if (!start.isEmpty()) filtered.removeIf(t -> t.getDate().compareTo(start) < 0);
-        // Remove transactions after the end date if provided
-        if (!end.isEmpty())   filtered.removeIf(t -> t.getDate().compareTo(end) > 0);
-        // Filter by description keyword if provided
-        if (!desc.isEmpty())  filtered.removeIf(t -> !t.getDescription().toLowerCase().contains(desc));
-        // Filter by vendor substring if provided
-        if (!ven.isEmpty())   filtered.removeIf(t -> !t.getVendor().toLowerCase().contains(ven));
+        List<Transaction> filtered;
+        try {
+            // One pass over the columns; blank criteria are skipped
+            filtered = ledger.search(start, end, desc, ven);
+        } catch (IllegalArgumentException e) {
+            System.out.println(RED + "❌ " + e.getMessage() + RESET);
+            return;
+        }
+
+        showTable(filtered); // Display filtered results in table format
+    }
 
-        UIUtils.printTable(filtered); // Display filtered results in table format
+    /**
+     * Reads a one-line query (see {@link LedgerQuery#parse}) and shows the rows
+     * it returns, with the index that answered it
+     */
+    private static void runQuery() {
+        System.out.println(CYAN + "e.g. vendor:amazon from:2024-01-01 amount>50 sort:amount limit:10   |   payments top:20" + RESET);
+        System.out.println(CYAN + "terms: from: to: date: desc: vendor: category: amount>n amount<n deposits payments"
+                + " sort:date|amount|size [asc|desc] limit:n top:n" + RESET);
+        System.out.print("Query: ");
+        String line = scanner.nextLine().trim();
+        if (line.isEmpty()) return;
+
+        QueryResult result;
+        long started = System.nanoTime();
+        try {
+            result = ledger.query(LedgerQuery.parse(line));
+        } catch (IllegalArgumentException e) {
+            System.out.println(RED + "❌ " + e.getMessage() + RESET);
+            return;
+        }
+        double tookMs = (System.nanoTime() - started) / 1_000_000.0;
+        showTable(result.getRows());
+        System.out.printf(CYAN + "%d row(s) via %s, %,d examined (%.2f ms)%n" + RESET,
+                result.getRows().size(), result.getIndex(), result.getExamined(), tookMs);
+    }
+
+    /**
+     * Writes every row, a date range or a query result to a Markdown, CSV or
+     * JSON Lines file (gzipped when the name ends in .gz), streaming it with a
+     * progress bar rather than building the document in memory
+     */
+    private static void exportTransactions() {
+        System.out.println("1) All   2) Date Range   3) Query");
+        System.out.print("Export: ");
+        String what = scanner.nextLine().trim();
+        List<Transaction> rows;
+        try {
+            switch (what) {
+                case "1":
+                    rows = oldestFirst();
+                    break;
+                case "2":
+                    System.out.print("Start Date (yyyy-MM-dd): ");
+                    String start = scanner.nextLine().trim();
+                    System.out.print("End Date (yyyy-MM-dd): ");
+                    String end = scanner.nextLine().trim();
+                    rows = ledger.query(new LedgerQuery().from(start).to(end)
+                            .sort(LedgerQuery.Sort.DATE, false)).getRows();
+                    break;
+                case "3":
+                    System.out.print("Query: ");
+                    rows = ledger.query(LedgerQuery.parse(scanner.nextLine().trim())).getRows();
+                    break;
+                default:
+                    System.out.println(RED + "❌ Invalid option." + RESET);
+                    return;
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(RED + "❌ " + e.getMessage() + RESET);
+            return;
+        }
+
+        System.out.print("File (.md, .csv or .jsonl, add .gz to compress) or leave blank for ledger-export.md: ");
+        String name = scanner.nextLine().trim();
+        Path file = Path.of(name.isEmpty() ? "ledger-export.md" : name);
+        long started = System.nanoTime();
+        try {
+            long bytes = LedgerExporter.export(rows, file, (done, total) ->
+                    System.out.print("\rExporting " + progressBar(total == 0 ? 1 : (double) done / total, 30)));
+            System.out.printf(GREEN + "%n✅ Exported %,d rows to %s (%,d KB, %.0f ms)%n" + RESET, rows.size(), file,
+                    (bytes + 1023) / 1024, (System.nanoTime() - started) / 1_000_000.0);
+        } catch (IllegalArgumentException | IOException e) {
+            System.out.println(RED + "❌ Export failed: " + e.getMessage() + RESET);
+        }
+    }
+
+    /**
+     * Every row oldest first (file order), read from the store as it is written
+     */
+    private static List<Transaction> oldestFirst() {
+        return new AbstractList<>() {
+            @Override public Transaction get(int row) { return ledger.get(row); }
+            @Override public int size()               { return ledger.size(); }
+        };
     }
 
     /**
      * Removes transactions
      */
     private static void deleteTransaction() {
+        if (refuseChanges()) return;
         // If no transactions exist, nothing to delete
-        if (transactions.isEmpty()) {
+        if (ledger.size() == 0) {
             System.out.println(YELLOW + "No transactions to delete." + RESET);
             return;
         }
 
         // Prompt user for deletion mode
         System.out.println("\n" + RED + BOLD + "⚠️  Remove Transaction(s)" + RESET);
-        System.out.println("1) By ID   2) By Date   3) By Vendor");
+        System.out.println("1) By ID   2) By Date   3) By Vendor   4) By Search");
         System.out.print("Choose mode: ");
         String mode = scanner.nextLine().trim();
 
         switch (mode) {
             case "1": // Delete by index ID
-                for (int i = 0; i < transactions.size(); i++) {
-                    System.out.printf("%2d) %s%n", i + 1, transactions.get(i));
+                List<Transaction> shown = ledger.newestFirst();
+                for (int i = 0; i < shown.size(); i++) {
+                    System.out.printf("%2d) %s%n", i + 1, shown.get(i));
                 }
                 System.out.print("Enter ID to delete: ");
                 try {
                     int idx = Integer.parseInt(scanner.nextLine().trim()) - 1;
-                    if (idx < 0 || idx >= transactions.size()) {
+                    if (idx < 0 || idx >= ledger.size()) {
                         System.out.println(RED + "❌ ID out of range." + RESET);
                     } else {
-                        Transaction removed = transactions.remove(idx);
+                        // IDs are shown newest-first; rows are stored oldest-first
+                        Transaction removed = ledger.remove(ledger.size() - 1 - idx);
                         System.out.println(GREEN + "✅ Removed: " + removed + RESET);
                     }
                 } catch (NumberFormatException e) {
@@ -379,29 +866,70 @@ public class AccountingLedgerApp {
             case "2": // Delete all transactions on a specified date
                 System.out.print("Enter date (YYYY-MM-DD): ");
                 String dt = scanner.nextLine().trim();
-                List<Transaction> byDate = transactions.stream()
-                        .filter(t -> t.getDate().equals(dt))
-                        .collect(Collectors.toList());
-                if (byDate.isEmpty()) {
+                long day;
+                try {
+                    day = LedgerTime.parseEpochDay(dt);
+                } catch (IllegalArgumentException e) {
+                    System.out.println(RED + "❌ " + e.getMessage() + RESET);
+                    return;
+                }
+                // Resolved through the date index instead of scanning every row
+                long started = System.nanoTime();
+                int byDate = ledger.removeBetween(day * LedgerTime.SECONDS_PER_DAY,
+                        (day + 1) * LedgerTime.SECONDS_PER_DAY - 1);
+                double tookMs = (System.nanoTime() - started) / 1_000_000.0;
+                if (byDate == 0) {
                     System.out.println(YELLOW + "No entries on that date." + RESET);
                 } else {
-                    transactions.removeAll(byDate);
-                    System.out.println(GREEN + "✅ Removed " + byDate.size() + " entries on " + dt + RESET);
+                    System.out.printf(GREEN + "✅ Removed %d entries on %s (%.2f ms)%n" + RESET, byDate, dt, tookMs);
                 }
                 break;
 
             case "3": // Delete by vendor substring
                 System.out.print("Enter vendor (substring): ");
                 String vend = scanner.nextLine().trim().toLowerCase();
-                List<Transaction> byVend = transactions.stream()
-                        .filter(t -> t.getVendor().toLowerCase().contains(vend))
-                        .collect(Collectors.toList());
-                if (byVend.isEmpty()) {
+                int byVend = ledger.removeByVendor(vend); // trigram index narrows the candidates
+                if (byVend == 0) {
                     System.out.println(YELLOW + "No entries for that vendor." + RESET);
                 } else {
-                    transactions.removeAll(byVend);
-                    System.out.println(GREEN + "✅ Removed " + byVend.size() + " entries for vendor '" + vend + "'" + RESET);
+                    System.out.println(GREEN + "✅ Removed " + byVend + " entries for vendor '" + vend + "'" + RESET);
+                }
+                break;
+
+            case "4": // Delete everything a search matches
+                System.out.print("Start Date (yyyy-MM-dd) or leave blank: ");
+                String start = scanner.nextLine().trim();
+                System.out.print("End Date (yyyy-MM-dd) or leave blank: ");
+                String end = scanner.nextLine().trim();
+                System.out.print("Description contains or leave blank: ");
+                String desc = scanner.nextLine().trim().toLowerCase();
+                System.out.print("Vendor contains or leave blank: ");
+                String ven = scanner.nextLine().trim().toLowerCase();
+                if (start.isEmpty() && end.isEmpty() && desc.isEmpty() && ven.isEmpty()) {
+                    System.out.println(RED + "❌ Enter at least one criterion." + RESET);
+                    return;
+                }
+                int matching;
+                try {
+                    matching = ledger.search(start, end, desc, ven).size();
+                } catch (IllegalArgumentException e) {
+                    System.out.println(RED + "❌ " + e.getMessage() + RESET);
+                    return;
+                }
+                if (matching == 0) {
+                    System.out.println(YELLOW + "No entries match." + RESET);
+                    return;
+                }
+                System.out.print(YELLOW + "Remove " + matching + " matching entries? (y/N): " + RESET);
+                if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                    System.out.println(YELLOW + "Nothing removed." + RESET);
+                    return;
                 }
+                // Matches are marked in a bitmap and removed in one sweep
+                long began = System.nanoTime();
+                int bySearch = ledger.removeMatching(start, end, desc, ven);
+                System.out.printf(GREEN + "✅ Removed %d entries (%.2f ms)%n" + RESET,
+                        bySearch, (System.nanoTime() - began) / 1_000_000.0);
                 break;
 
             default:
@@ -409,8 +937,7 @@ public class AccountingLedgerApp {
                 return;
         }
 
-        // After deletion, recalculate balances and overwrite CSV
-        calculateBalances();
-        saveAllTransactions();
+        // The store fixes up balances as it removes rows; log the deletions as tombstones
+        saveChanges();
     }
 }
@@ -1,5 +1,7 @@
 package com.pluralsight;
 
+import com.pluralsight.store.StringPool;
+
 public class Transaction {
     private String date;
     private String time;
@@ -10,13 +12,14 @@ public class Transaction {
     private double balance;
 
     // constructor without balance (balance defaults to 0)
+    // Dates, times, vendors and categories repeat across rows, so every row shares the pooled copy
     public Transaction(String date, String time, String description,
                        String vendor, String category, double amount) {
-        this.date = date;
-        this.time = time;
-        this.description = description;
-        this.vendor = vendor;
-        this.category = category;
+        this.date = StringPool.DATES.intern(checkField("Date", date));
+        this.time = StringPool.TIMES.intern(checkField("Time", time));
+        this.description = checkField("Description", description);
+        this.vendor = StringPool.VENDORS.intern(checkField("Vendor", vendor));
+        this.category = StringPool.CATEGORIES.intern(checkField("Category", category));
         this.amount = amount;
         this.balance = 0;
     }
@@ -29,6 +32,22 @@ public class Transaction {
         this.balance = balance;
     }
 
+    // A text field cannot hold the delimiter or a line break, or its row would not read back as one record
+    public static boolean isValidField(String value) {
+        return value == null || (value.indexOf('|') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0);
+    }
+
+    private static String checkField(String name, String value) {
+        if (!isValidField(value)) {
+            throw new IllegalArgumentException(name + " cannot contain '|' or a line break: " + value);
+        }
+        return value;
+    }
+
+    // for subclasses that read their fields from somewhere else (see ColumnarLedgerStore)
+    protected Transaction() {
+    }
+
     // Getters
     public String getDate()         { return date; }
     public String getTime()         { return time; }
@@ -37,6 +56,7 @@ public class Transaction {
     public String getCategory()     { return category; }
     public double getAmount()       { return amount; }
     public double getBalance()      { return balance; }
+    public long getAmountCents()    { return Math.round(getAmount() * 100); }
 
     // Setter for balance
     public void setBalance(double balance) {
@@ -46,10 +66,10 @@ public class Transaction {
     @Override
     public String toString() {
         return String.format("%s %s | %-20s | %-15s | %-10s | %10.2f | %10.2f",
-                date, time, description, vendor, category, amount, balance);
+                getDate(), getTime(), getDescription(), getVendor(), getCategory(), getAmount(), getBalance());
     }
 
-    // Load a transaction from a pipe-delimited line
+    // Load a transaction from a pipe-delimited line (repeated fields are pooled by the constructor)
     public static Transaction fromCsv(String csvLine) {
         String[] parts = csvLine.split("\\|");
 
@@ -99,13 +119,13 @@ public class Transaction {
     // Save as pipe-delimited
     public String toCsv() {
         return String.join("|",
-                date,
-                time,
-                description,
-                vendor,
-                category,
-                String.format("%.2f", amount),
-                String.format("%.2f", balance)
+                getDate(),
+                getTime(),
+                getDescription(),
+                getVendor(),
+                getCategory(),
+                String.format("%.2f", getAmount()),
+                String.format("%.2f", getBalance())
         );
     }
 }
@@ -0,0 +1,189 @@
+package com.pluralsight.account;
+
+import com.pluralsight.io.LedgerFiles;
+import com.pluralsight.io.MappedLedgerLoader;
+import com.pluralsight.store.CategorySummary;
+import com.pluralsight.store.ColumnarLedgerStore;
+import com.pluralsight.store.LedgerStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Account-partitioned ledgers: one pipe-delimited file per account in a data
+ * directory ({@code <dir>/<account>.csv}, with its own checkpoint and binary
+ * copy next to it).
+ *
+ * {@link #loadAll()} reads every account file at once, one virtual thread per
+ * account, and cross-account queries fan out the same way and merge the
+ * per-account answers. The account the console is working on is
+ * {@link #attach attached} as a live store instead of being read again.
+ */
+public class AccountDirectory {
+    public static final String DEFAULT_DIR = "accounts";
+    private static final String EXTENSION = ".csv";
+
+    private final Path dir;
+    // Account name -> its rows, sorted by name
+    private final Map<String, LedgerStore> stores = new TreeMap<>();
+
+    public AccountDirectory(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * File-system-safe account name for an owner or account title, e.g. "Acme Corp." -> "acme-corp"
+     */
+    public static String accountName(String title) {
+        String name = title.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "");
+        return name.isEmpty() ? "default" : name;
+    }
+
+    public Path getDir()                   { return dir; }
+    public Path fileFor(String account)    { return dir.resolve(account + EXTENSION); }
+    public Path segmentFor(String account) { return dir.resolve(account + ".ldgb"); }
+
+    /**
+     * Accounts that have a file in the directory, sorted
+     */
+    public List<String> accountNames() throws IOException {
+        List<String> names = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return names;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + EXTENSION)) {
+            for (Path f : files) {
+                String file = f.getFileName().toString();
+                names.add(file.substring(0, file.length() - EXTENSION.length()));
+            }
+        }
+        names.sort(null);
+        return names;
+    }
+
+    /**
+     * Uses store for account from now on (e.g. the one open in the console,
+     * which keeps it current) instead of loading its file
+     */
+    public synchronized void attach(String account, LedgerStore store) {
+        stores.put(account, store);
+    }
+
+    public synchronized LedgerStore get(String account) {
+        return stores.get(account);
+    }
+
+    /**
+     * Loads every account in the directory that is not loaded or attached yet,
+     * in parallel; returns the load result of each account read
+     */
+    public Map<String, MappedLedgerLoader.LoadResult> loadAll() throws IOException {
+        List<String> missing = accountNames();
+        synchronized (this) {
+            missing.removeIf(stores::containsKey);
+        }
+        return fanOut(missing, account -> {
+            LedgerStore store = new ColumnarLedgerStore();
+            try {
+                MappedLedgerLoader.LoadResult loaded = LedgerFiles.load(fileFor(account), segmentFor(account), store);
+                synchronized (this) {
+                    stores.putIfAbsent(account, store);
+                }
+                return loaded;
+            } catch (IOException e) {
+                throw new UncheckedIOException(new IOException(account + ": " + e.getMessage(), e));
+            }
+        });
+    }
+
+    /**
+     * Closing balance of every loaded account
+     */
+    public Map<String, Long> balancesCents() {
+        return query(LedgerStore::balanceCents);
+    }
+
+    /**
+     * Sum of the closing balances of all loaded accounts
+     */
+    public long totalBalanceCents() {
+        long total = 0;
+        for (long b : balancesCents().values()) total += b;
+        return total;
+    }
+
+    /**
+     * Category totals across all loaded accounts; categories match ignoring
+     * case, the first spelling seen is kept
+     */
+    public List<CategorySummary> categories() {
+        Map<String, CategorySummary> merged = new LinkedHashMap<>();
+        for (List<CategorySummary> perAccount : query(LedgerStore::categories).values()) {
+            for (CategorySummary c : perAccount) {
+                merged.merge(c.getName().toLowerCase(), c, AccountDirectory::merge);
+            }
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Runs query on every loaded account at once, one virtual thread each;
+     * results are keyed by account in name order
+     */
+    public <T> Map<String, T> query(Function<LedgerStore, T> query) {
+        Map<String, LedgerStore> snapshot;
+        synchronized (this) {
+            snapshot = new TreeMap<>(stores);
+        }
+        try {
+            return fanOut(new ArrayList<>(snapshot.keySet()), account -> query.apply(snapshot.get(account)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static CategorySummary merge(CategorySummary a, CategorySummary b) {
+        return new CategorySummary(a.getName(),
+                a.getDepositsCents() + b.getDepositsCents(),
+                a.getPaymentsCents() + b.getPaymentsCents(),
+                a.getCount() + b.getCount(),
+                Math.min(a.getMinCents(), b.getMinCents()),
+                Math.max(a.getMaxCents(), b.getMaxCents()));
+    }
+
+    // One virtual thread per account; the first failure is rethrown once all are done
+    private static <T> Map<String, T> fanOut(List<String> accounts, Function<String, T> task) throws IOException {
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String account : accounts) {
+                futures.put(account, executor.submit(() -> task.apply(account)));
+            }
+        }
+        Map<String, T> results = new TreeMap<>();
+        for (Map.Entry<String, Future<T>> e : futures.entrySet()) {
+            try {
+                results.put(e.getKey(), e.getValue().get());
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof UncheckedIOException io) throw io.getCause();
+                if (ex.getCause() instanceof RuntimeException re) throw re;
+                throw new IllegalStateException(ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted", ex);
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,166 @@
+package com.pluralsight.io;
+
+import com.pluralsight.store.LedgerStore;
+import com.pluralsight.store.RowBatch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+import static com.pluralsight.io.BinarySegmentWriter.*;
+
+/**
+ * Reads the binary segment format written by {@link BinarySegmentWriter}.
+ * Dictionaries are decoded once; each block is then memory-mapped and copied
+ * into a {@link RowBatch} without any per-row text parsing.
+ */
+public class BinarySegmentReader {
+
+    private BinarySegmentReader() {
+    }
+
+    /**
+     * Appends every row of file to store. The result describes the source CSV
+     * (record count and tombstoned ordinals) so a {@link LedgerLog} can attach.
+     */
+    public static MappedLedgerLoader.LoadResult load(Path file, LedgerStore store) throws IOException {
+        return load(file, store, new LoadProgress());
+    }
+
+    /**
+     * Same, reporting the record bytes of each block to progress
+     */
+    public static MappedLedgerLoader.LoadResult load(Path file, LedgerStore store, LoadProgress progress) throws IOException {
+        return loadRange(file, Long.MIN_VALUE, Long.MAX_VALUE, store, progress);
+    }
+
+    /**
+     * Appends only rows timestamped within [fromEpochSecond, toEpochSecond];
+     * blocks whose bounds miss the range are never read
+     */
+    public static MappedLedgerLoader.LoadResult loadRange(Path file, long fromEpochSecond, long toEpochSecond,
+                                                          LedgerStore store) throws IOException {
+        return loadRange(file, fromEpochSecond, toEpochSecond, store, new LoadProgress());
+    }
+
+    /**
+     * True if segment was written from csv exactly as it is now: same length and
+     * the same fingerprint of all its bytes. A segment from before these were
+     * recorded, or one that is damaged, never matches.
+     */
+    static boolean isCopyOf(Path segment, Path csv) throws IOException {
+        long length = Files.size(csv);
+        long[] source = source(segment);
+        return source != null && source[0] == length && source[1] == LedgerCheckpoint.fingerprint(csv, length);
+    }
+
+    /**
+     * True if segment was written from the log at position at
+     */
+    static boolean isCopyOf(Path segment, LedgerLog.Position at) throws IOException {
+        long[] source = source(segment);
+        return source != null && source[0] == at.getOffset() && source[1] == at.getFingerprint();
+    }
+
+    // Source length and fingerprint from the header, or null if it is not a current-version segment
+    private static long[] source(Path segment) throws IOException {
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+            if (in.size() < HEADER_BYTES + TRAILER_BYTES) return null;
+            ByteBuffer header = read(in, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) return null;
+            return new long[]{header.getLong(24), header.getLong(32)};
+        }
+    }
+
+    private static MappedLedgerLoader.LoadResult loadRange(Path file, long fromEpochSecond, long toEpochSecond,
+                                                           LedgerStore store, LoadProgress progress) throws IOException {
+        long started = System.nanoTime();
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = in.size();
+            ByteBuffer header = read(in, 0, HEADER_BYTES);
+            if (size < HEADER_BYTES + TRAILER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not a ledger segment file: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("Unsupported segment version " + version);
+            header.getInt(); // rows
+            header.getInt(); // block size
+            int sourceRecords = header.getInt();
+
+            ByteBuffer trailer = read(in, size - TRAILER_BYTES, TRAILER_BYTES);
+            long deadOffset = trailer.getLong();
+            long footerOffset = trailer.getLong();
+            if (trailer.getInt() != MAGIC) throw new IOException("Truncated segment file: " + file);
+
+            // Tombstone bitmap and dictionaries sit between the blocks and the footer
+            MappedByteBuffer meta = in.map(FileChannel.MapMode.READ_ONLY, deadOffset, footerOffset - deadOffset);
+            long[] words = new long[meta.getInt()];
+            for (int i = 0; i < words.length; i++) words[i] = meta.getLong();
+            BitSet dead = BitSet.valueOf(words);
+            String[] descriptions = readDictionary(meta);
+            String[] vendors = readDictionary(meta);
+            String[] categories = readDictionary(meta);
+
+            MappedByteBuffer footer = in.map(FileChannel.MapMode.READ_ONLY, footerOffset, size - TRAILER_BYTES - footerOffset);
+            int blocks = footer.getInt();
+            progress.addTotal(deadOffset - HEADER_BYTES);
+            RowBatch batch = new RowBatch();
+            int loaded = 0;
+            for (int b = 0; b < blocks; b++) {
+                long offset = footer.getLong();
+                int count = footer.getInt();
+                long min = footer.getLong();
+                long max = footer.getLong();
+                long bytes = (long) count * RECORD_BYTES;
+                if (max < fromEpochSecond || min > toEpochSecond) { // skip the whole block
+                    progress.advance(bytes);
+                    continue;
+                }
+
+                MappedByteBuffer block = in.map(FileChannel.MapMode.READ_ONLY, offset, bytes);
+                batch.clear();
+                for (int i = 0; i < count; i++) {
+                    long ts = block.getLong();
+                    long amount = block.getLong();
+                    int desc = block.getInt(), vendor = block.getInt(), category = block.getInt();
+                    if (ts < fromEpochSecond || ts > toEpochSecond) continue;
+                    batch.add(ts, amount, descriptions[desc], vendors[vendor], categories[category]);
+                }
+                store.appendAll(batch);
+                loaded += batch.size();
+                progress.advance(bytes);
+            }
+            long elapsed = System.nanoTime() - started;
+            // A full load mirrors the source CSV; a range load is just rows
+            boolean full = fromEpochSecond == Long.MIN_VALUE && toEpochSecond == Long.MAX_VALUE;
+            return full ? new MappedLedgerLoader.LoadResult(sourceRecords, dead, 0, elapsed, dead)
+                    : new MappedLedgerLoader.LoadResult(loaded, new BitSet(), 0, elapsed);
+        }
+    }
+
+    private static String[] readDictionary(ByteBuffer buf) {
+        String[] values = new String[buf.getInt()];
+        byte[] scratch = new byte[64];
+        for (int i = 0; i < values.length; i++) {
+            int len = buf.getInt();
+            if (scratch.length < len) scratch = new byte[Math.max(len, scratch.length * 2)];
+            buf.get(scratch, 0, len);
+            values[i] = new String(scratch, 0, len, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    private static ByteBuffer read(FileChannel in, long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (in.read(buf, position + buf.position()) < 0) throw new IOException("Unexpected end of segment file");
+        }
+        return buf.flip();
+    }
+}
@@ -0,0 +1,133 @@
+package com.pluralsight.io;
+
+import com.pluralsight.Transaction;
+import com.pluralsight.store.LedgerStore;
+import com.pluralsight.store.LedgerTime;
+import com.pluralsight.store.StringDictionary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Writes a ledger in the binary segment format read by {@link BinarySegmentReader}.
+ *
+ * <pre>
+ * header   int magic "LDGB", int version, int rows, int blockSize, int sourceRecords, int reserved,
+ *          long sourceBytes, long sourceFingerprint   length and CRC32 of the CSV it mirrors
+ * blocks   rows x [long epochSecond][long amountCents][int description][int vendor][int category]
+ * dead     int words, long[words]   ordinals of the source CSV removed by tombstones
+ * dicts    3 x (int count, count x (int byteLength, UTF-8 bytes))   description, vendor, category
+ * footer   int blocks, blocks x (long offset, int rows, long minEpochSecond, long maxEpochSecond)
+ * trailer  long deadOffset, long footerOffset, int magic
+ * </pre>
+ *
+ * Records are fixed width and grouped into blocks of {@link #BLOCK_ROWS}; the
+ * footer's per-block time bounds let readers skip blocks outside a date range.
+ */
+public class BinarySegmentWriter {
+    static final int MAGIC = 0x4C444742; // "LDGB"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 40;
+    static final int RECORD_BYTES = 8 + 8 + 4 + 4 + 4;
+    static final int TRAILER_BYTES = 8 + 8 + 4;
+    public static final int BLOCK_ROWS = 4096;
+
+    private BinarySegmentWriter() {
+    }
+
+    /**
+     * Writes every row of store to file (via a temp file and atomic rename).
+     * sourceRecords and sourceDead describe the CSV the store was loaded from, so
+     * the CSV log can still be appended to after loading the binary copy;
+     * sourceBytes and sourceFingerprint (see {@link LedgerCheckpoint#fingerprint})
+     * let a reader tell whether that CSV is still the same file.
+     */
+    public static void write(LedgerStore store, Path file, int sourceRecords, BitSet sourceDead,
+                             long sourceBytes, long sourceFingerprint) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        StringDictionary descriptions = new StringDictionary();
+        StringDictionary vendors = new StringDictionary();
+        StringDictionary categories = new StringDictionary();
+        List<long[]> blocks = new ArrayList<>();
+
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+            int rows = store.size();
+            buf.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(BLOCK_ROWS).putInt(sourceRecords).putInt(0)
+                    .putLong(sourceBytes).putLong(sourceFingerprint);
+
+            long offset = HEADER_BYTES;
+            for (int start = 0; start < rows; start += BLOCK_ROWS) {
+                int count = Math.min(BLOCK_ROWS, rows - start);
+                long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+                for (int row = start; row < start + count; row++) {
+                    Transaction t = store.get(row);
+                    long ts = LedgerTime.toEpochSecond(t.getDate(), t.getTime());
+                    min = Math.min(min, ts);
+                    max = Math.max(max, ts);
+                    if (buf.remaining() < RECORD_BYTES) drain(out, buf);
+                    buf.putLong(ts)
+                            .putLong(t.getAmountCents())
+                            .putInt(descriptions.encode(t.getDescription()))
+                            .putInt(vendors.encode(t.getVendor()))
+                            .putInt(categories.encode(t.getCategory()));
+                }
+                blocks.add(new long[]{offset, count, min, max});
+                offset += (long) count * RECORD_BYTES;
+            }
+
+            long deadOffset = offset;
+            long[] words = sourceDead.toLongArray();
+            if (buf.remaining() < 4) drain(out, buf);
+            buf.putInt(words.length);
+            for (long w : words) {
+                if (buf.remaining() < 8) drain(out, buf);
+                buf.putLong(w);
+            }
+            for (StringDictionary dict : new StringDictionary[]{descriptions, vendors, categories}) {
+                if (buf.remaining() < 4) drain(out, buf);
+                buf.putInt(dict.size());
+                for (int id = 0; id < dict.size(); id++) {
+                    byte[] bytes = dict.decode(id).getBytes(StandardCharsets.UTF_8);
+                    if (buf.remaining() < 4) drain(out, buf);
+                    buf.putInt(bytes.length);
+                    for (int pos = 0; pos < bytes.length; ) {
+                        if (!buf.hasRemaining()) drain(out, buf);
+                        int n = Math.min(buf.remaining(), bytes.length - pos);
+                        buf.put(bytes, pos, n);
+                        pos += n;
+                    }
+                }
+            }
+            drain(out, buf);
+
+            long footerOffset = out.position();
+            buf.putInt(blocks.size());
+            for (long[] b : blocks) {
+                if (buf.remaining() < 28) drain(out, buf);
+                buf.putLong(b[0]).putInt((int) b[1]).putLong(b[2]).putLong(b[3]);
+            }
+            if (buf.remaining() < TRAILER_BYTES) drain(out, buf);
+            buf.putLong(deadOffset).putLong(footerOffset).putInt(MAGIC);
+            drain(out, buf);
+            out.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void drain(FileChannel out, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) out.write(buf);
+        buf.clear();
+    }
+}
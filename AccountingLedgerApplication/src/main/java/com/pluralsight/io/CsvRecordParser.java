@@ -0,0 +1,121 @@
+package com.pluralsight.io;
+
+import com.pluralsight.Transaction;
+import com.pluralsight.store.LedgerTime;
+import com.pluralsight.store.RowBatch;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single-cursor parser for pipe-delimited ledger lines.
+ *
+ * One instance is meant to be reused for many lines by a single thread: the
+ * field offsets live in a shared int buffer and amounts are parsed straight
+ * into long cents, so the only allocations per line are the text fields
+ * themselves. Anything the fast path does not understand (exponents, more
+ * than two decimals, wrong field count, ...) is handed to
+ * {@link Transaction#fromCsv(String)} so error handling stays identical.
+ */
+public class CsvRecordParser {
+    // date | time | desc | vendor | category | amount | balance
+    private static final int MAX_FIELDS = 7;
+
+    // Shared field buffer: start/end offsets of each field in the current line
+    private final int[] starts = new int[MAX_FIELDS];
+    private final int[] ends = new int[MAX_FIELDS];
+    private int fieldCount;
+
+    private long amountCents;
+
+    /**
+     * Parses buf[from, to) straight into a column batch without building a Transaction.
+     * Throws IllegalArgumentException for lines the original parser also rejects
+     * and for dates or times {@link LedgerTime} cannot read.
+     */
+    public void read(byte[] buf, int from, int to, RowBatch out) {
+        if (scan(buf, from, to) && parseAmounts(buf)) {
+            long ts = LedgerTime.toEpochSecond(buf, starts[0], ends[0], starts[1], ends[1]);
+            if (ts == Long.MIN_VALUE) ts = LedgerTime.toEpochSecond(field(buf, 0), field(buf, 1));
+            String category = fieldCount == 5 ? "Uncategorized" : field(buf, 4);
+            out.add(ts, amountCents, field(buf, 2), field(buf, 3), category);
+            return;
+        }
+        Transaction t = Transaction.fromCsv(new String(buf, from, to - from, StandardCharsets.UTF_8));
+        amountCents = t.getAmountCents();
+        out.add(LedgerTime.toEpochSecond(t.getDate(), t.getTime()), t.getAmountCents(),
+                t.getDescription(), t.getVendor(), t.getCategory());
+    }
+
+    /** Amount of the last line read, in cents */
+    public long amountCents() {
+        return amountCents;
+    }
+
+    // ---- scanning ----
+
+    private boolean scan(byte[] buf, int from, int to) {
+        int n = 0;
+        starts[0] = from;
+        for (int i = from; i < to; i++) {
+            if (buf[i] == '|') {
+                if (n == MAX_FIELDS - 1) return false; // too many fields
+                ends[n++] = i;
+                starts[n] = i + 1;
+            } else if (buf[i] == '\r' || buf[i] == '\n') {
+                return false; // a stray line break: the slow path rejects it if it sits in a text field
+            }
+        }
+        ends[n++] = to;
+        fieldCount = n;
+        // String.split drops trailing empty fields; let the slow path keep that quirk
+        return n >= 5 && ends[n - 1] > starts[n - 1];
+    }
+
+    private int amountField() {
+        return fieldCount == 5 ? 4 : 5;
+    }
+
+    private boolean parseAmounts(byte[] buf) {
+        int a = amountField();
+        long cents = parseCents(buf, starts[a], ends[a]);
+        if (cents == Long.MIN_VALUE) return false;
+        amountCents = cents;
+        // The stored balance is not kept, but a line the slow path would reject must not pass here
+        return fieldCount != 7 || parseCents(buf, starts[6], ends[6]) != Long.MIN_VALUE;
+    }
+
+    /**
+     * Parses [-+]digits[.d[d]] into cents, or returns Long.MIN_VALUE if the
+     * text is anything else (the caller then falls back to Double.parseDouble).
+     * At most 13 whole digits keep the cents below 2^53, where the slow path's
+     * double still holds every cent, so both paths agree on every amount.
+     */
+    static long parseCents(byte[] buf, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buf[i] == '-' || buf[i] == '+')) negative = buf[i++] == '-';
+        long whole = 0;
+        int digits = 0;
+        while (i < to && buf[i] >= '0' && buf[i] <= '9') {
+            if (++digits > 13) return Long.MIN_VALUE;
+            whole = whole * 10 + (buf[i++] - '0');
+        }
+        long frac = 0;
+        int fracDigits = 0;
+        if (i < to && buf[i] == '.') {
+            i++;
+            while (i < to && buf[i] >= '0' && buf[i] <= '9') {
+                if (++fracDigits > 2) return Long.MIN_VALUE;
+                frac = frac * 10 + (buf[i++] - '0');
+            }
+        }
+        if (i != to || digits + fracDigits == 0) return Long.MIN_VALUE;
+        if (fracDigits == 1) frac *= 10;
+        long cents = whole * 100 + frac;
+        return negative ? -cents : cents;
+    }
+
+    private String field(byte[] buf, int i) {
+        return new String(buf, starts[i], ends[i] - starts[i], StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,266 @@
+package com.pluralsight.io;
+
+import com.pluralsight.metrics.LedgerMetrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appends byte records to one file from a single long-lived writer thread.
+ *
+ * Callers queue records with {@link #submit(byte[])} and get a future that
+ * completes once the record is durable. The writer takes everything queued
+ * (optionally waiting a short commit window for more), writes the whole batch
+ * with one gathering FileChannel write and, in {@link Durability#FSYNC} mode,
+ * one {@code force}; so N concurrent appends cost one syscall set, not N.
+ * Records are written in submission order.
+ *
+ * The channel stays open between batches. Whoever replaces the file (the log's
+ * compaction) calls {@link #drain()} first and {@link #reopen()} after.
+ */
+public class GroupCommitWriter implements AutoCloseable {
+    /**
+     * When a batch counts as durable
+     */
+    public enum Durability {
+        /** Written to the OS (survives a crash of the JVM, not of the machine) */
+        FLUSH,
+        /** Written and forced to the device */
+        FSYNC;
+
+        /** Parses "flush" or "fsync", case-insensitive */
+        public static Durability parse(String s) {
+            return valueOf(s.trim().toUpperCase());
+        }
+    }
+
+    // Batches larger than this are split so one huge bulk load does not hold everything in one write
+    private static final int MAX_BATCH_BYTES = 4 << 20;
+
+    private final Path file;
+    private final Durability durability;
+    private final long windowNanos;
+    // Guards the queue; never held during I/O, so submitters do not wait for a write in progress
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition queued = lock.newCondition();
+    // Held while a batch is written and while reopen() closes the channel
+    private final ReentrantLock channelLock = new ReentrantLock();
+    private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+    private final Thread thread;
+    private CompletableFuture<Void> last = CompletableFuture.completedFuture(null);
+    private boolean closed;
+
+    private FileChannel channel;
+    private volatile long batches;
+    private volatile long records;
+
+    /**
+     * Starts the writer thread; the file is opened (and created) on the first batch
+     *
+     * @param windowMicros how long the writer waits for more records before writing a batch, 0 for none
+     */
+    public GroupCommitWriter(Path file, Durability durability, long windowMicros) {
+        this.file = file;
+        this.durability = durability;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.thread = new Thread(this::run, "ledger-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues a record; the future completes when it is durable, or exceptionally
+     * with the IOException that stopped its batch
+     */
+    public CompletableFuture<Void> submit(byte[] record) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (closed) throw new IllegalStateException("Writer is closed");
+            queue.add(new Entry(record, done));
+            last = done;
+            queued.signal();
+        } finally {
+            lock.unlock();
+        }
+        return done;
+    }
+
+    /**
+     * Future of the newest record submitted so far; it completing means every earlier one is durable too
+     */
+    public CompletableFuture<Void> lastSubmitted() {
+        lock.lock();
+        try {
+            return last;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until everything submitted so far is written
+     */
+    public void drain() throws IOException {
+        await(lastSubmitted());
+    }
+
+    /**
+     * Closes the channel so the next batch opens the file again, e.g. after it
+     * was replaced. Call with the queue drained and no submitters running.
+     */
+    public void reopen() throws IOException {
+        channelLock.lock();
+        try {
+            closeChannel();
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
+    public Durability getDurability() { return durability; }
+    public long getBatches()          { return batches; }
+    public long getRecords()          { return records; }
+
+    /**
+     * Writes what is queued, then stops the thread and closes the file
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            queued.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Blocks on a future from {@link #submit}, unwrapping its IOException
+     */
+    public static void await(CompletableFuture<Void> future) throws IOException {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw e;
+        }
+    }
+
+    // ---- writer thread ----
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>();
+        while (true) {
+            lock.lock();
+            try {
+                while (queue.isEmpty() && !closed) queued.awaitUninterruptibly();
+                if (queue.isEmpty()) break;
+                if (windowNanos > 0 && !closed) {
+                    // Give concurrent callers a moment to join this batch
+                    long left = windowNanos;
+                    while (left > 0 && !closed) {
+                        try {
+                            left = queued.awaitNanos(left);
+                        } catch (InterruptedException e) {
+                            break;
+                        }
+                    }
+                }
+                int bytes = 0;
+                while (!queue.isEmpty() && (batch.isEmpty() || bytes + queue.peek().bytes.length <= MAX_BATCH_BYTES)) {
+                    Entry e = queue.poll();
+                    bytes += e.bytes.length;
+                    batch.add(e);
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            IOException failure;
+            channelLock.lock();
+            try {
+                failure = write(batch);
+            } finally {
+                channelLock.unlock();
+            }
+            for (Entry e : batch) {
+                if (failure == null) e.done.complete(null);
+                else e.done.completeExceptionally(failure);
+            }
+            batch.clear();
+        }
+        channelLock.lock();
+        try {
+            closeQuietly();
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
+    private IOException write(List<Entry> batch) {
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        long remaining = 0;
+        int lines = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            byte[] bytes = batch.get(i).bytes;
+            buffers[i] = ByteBuffer.wrap(bytes);
+            remaining += bytes.length;
+            for (byte b : bytes) {
+                if (b == '\n') lines++;
+            }
+        }
+        try (LedgerMetrics.Timer t = LedgerMetrics.time(LedgerMetrics.Operation.SAVE)) {
+            if (channel == null) {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            t.rows(lines).bytes(remaining);
+            while (remaining > 0) remaining -= channel.write(buffers);
+            if (durability == Durability.FSYNC) channel.force(false);
+            batches++;
+            records += batch.size();
+            return null;
+        } catch (IOException e) {
+            // Start over with a fresh channel next time
+            closeQuietly();
+            return e;
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            FileChannel c = channel;
+            channel = null;
+            c.close();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            closeChannel();
+        } catch (IOException ignored) {
+            // nothing left to lose: every batch already reported its own result
+        }
+    }
+
+    private record Entry(byte[] bytes, CompletableFuture<Void> done) {
+    }
+}
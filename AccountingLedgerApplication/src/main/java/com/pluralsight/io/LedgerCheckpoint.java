@@ -0,0 +1,221 @@
+package com.pluralsight.io;
+
+import com.pluralsight.store.CategorySummary;
+import com.pluralsight.store.LedgerStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+
+/**
+ * Startup checkpoints for a CSV ledger, so a start reads the history from a
+ * binary copy and parses only the CSV lines written since.
+ *
+ * A checkpoint is two files next to the CSV: {@code <csv>.ckpt.ldgb}, a
+ * {@link BinarySegmentWriter binary segment} of the live rows, and
+ * {@code <csv>.ckpt}, which says what the segment covers:
+ *
+ * <pre>
+ * int  magic "LDGC", int version
+ * long csvOffset       CSV bytes covered by the segment
+ * int  csvRecords      data records in those bytes
+ * int  rows            live rows in the segment
+ * long balanceCents    closing balance
+ * long fingerprint     CRC32 of every covered byte
+ * long segmentBytes
+ * int  categories, categories x (UTF name, long depositsCents, long paymentsCents, int count)
+ * long crc             CRC32 of everything above
+ * </pre>
+ *
+ * A checkpoint that fails any check (damaged, CSV shorter, edited or
+ * rewritten by a compaction since, segment replaced, loaded totals not
+ * matching) is stale; {@link #load} then throws and the caller does a full
+ * load. Checking the fingerprint reads the covered bytes once, which costs a
+ * small fraction of parsing them.
+ */
+public final class LedgerCheckpoint {
+    static final int MAGIC = 0x4C444743; // "LDGC"
+    static final int VERSION = 2;
+
+    private LedgerCheckpoint() {
+    }
+
+    public static Path pathFor(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".ckpt");
+    }
+
+    static Path segmentFor(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".ckpt.ldgb");
+    }
+
+    /**
+     * Checkpoints store, which must hold exactly what log has recorded (call it
+     * from the thread that owns the store, or under the store's lock)
+     */
+    public static void write(LedgerStore store, LedgerLog log, Path csv) throws IOException {
+        LedgerLog.Position at = log.position();
+        Path segment = segmentFor(csv);
+        BinarySegmentWriter.write(store, segment, at.getRecords(), at.getDeadOrdinals(),
+                at.getOffset(), at.getFingerprint());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(at.getOffset());
+        out.writeInt(at.getRecords());
+        out.writeInt(store.size());
+        out.writeLong(store.balanceCents());
+        out.writeLong(at.getFingerprint());
+        out.writeLong(Files.size(segment));
+        List<CategorySummary> categories = store.categories();
+        out.writeInt(categories.size());
+        for (CategorySummary c : categories) {
+            out.writeUTF(c.getName());
+            out.writeLong(c.getDepositsCents());
+            out.writeLong(c.getPaymentsCents());
+            out.writeInt(c.getCount());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        out.flush();
+
+        Path meta = pathFor(csv);
+        Path temp = meta.resolveSibling(meta.getFileName() + ".tmp");
+        Files.write(temp, bytes.toByteArray());
+        Files.move(temp, meta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * True if the checkpoint was taken with the log exactly where it is now
+     * (same length, records and fingerprint), i.e. writing a new one would gain nothing
+     */
+    public static boolean isCurrent(Path csv, LedgerLog.Position at) throws IOException {
+        Path meta = pathFor(csv);
+        if (!Files.exists(meta)) return false;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(meta))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != at.getOffset()
+                    || in.readInt() != at.getRecords()) {
+                return false;
+            }
+            in.readInt();  // rows
+            in.readLong(); // balance
+            return in.readLong() == at.getFingerprint() && Files.exists(segmentFor(csv));
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Loads the checkpoint and then the CSV after it into an empty store.
+     * Returns null if there is no checkpoint; throws if it is stale or damaged,
+     * in which case the store may be partly filled.
+     */
+    public static MappedLedgerLoader.LoadResult load(Path csv, LedgerStore store) throws IOException {
+        return load(csv, store, new LoadProgress());
+    }
+
+    /**
+     * Same, reporting segment and tail bytes to progress
+     */
+    public static MappedLedgerLoader.LoadResult load(Path csv, LedgerStore store, LoadProgress progress) throws IOException {
+        Path meta = pathFor(csv);
+        if (!Files.exists(meta)) return null;
+        long started = System.nanoTime();
+
+        byte[] data = Files.readAllBytes(meta);
+        if (data.length < 8) throw new IOException("Checkpoint is truncated");
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 8);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (ByteBuffer.wrap(data, data.length - 8, 8).getLong() != crc.getValue()) {
+            throw new IOException("Checkpoint is damaged");
+        }
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) throw new IOException("Not a ledger checkpoint");
+        long csvOffset = in.readLong();
+        int csvRecords = in.readInt();
+        int rows = in.readInt();
+        long balanceCents = in.readLong();
+        long fingerprint = in.readLong();
+        long segmentBytes = in.readLong();
+        Map<String, long[]> categories = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            categories.put(in.readUTF().toLowerCase(), new long[]{in.readLong(), in.readLong(), in.readInt()});
+        }
+
+        // The covered bytes must still be there, unchanged
+        long csvLength = Files.exists(csv) ? Files.size(csv) : 0;
+        if (csvLength < csvOffset || fingerprint(csv, csvOffset) != fingerprint) {
+            throw new IOException("Checkpoint is stale: " + csv.getFileName() + " was rewritten");
+        }
+        Path segment = segmentFor(csv);
+        if (!Files.exists(segment) || Files.size(segment) != segmentBytes) {
+            throw new IOException("Checkpoint is stale: " + segment.getFileName() + " was replaced");
+        }
+
+        MappedLedgerLoader.LoadResult head = BinarySegmentReader.load(segment, store, progress);
+        if (head.getRows() != csvRecords || store.size() != rows || store.balanceCents() != balanceCents
+                || !sameCategories(store.categories(), categories)) {
+            throw new IOException("Checkpoint does not match its segment");
+        }
+
+        MappedLedgerLoader.LoadResult tail = new MappedLedgerLoader(ForkJoinPool.commonPool(), progress)
+                .loadTail(csv, csvOffset, csvRecords, head.getDeadOrdinals(), store);
+        return new MappedLedgerLoader.LoadResult(tail.getRows(), tail.getDeadOrdinals(), tail.getBadLines(),
+                System.nanoTime() - started, tail.getDroppedOrdinals());
+    }
+
+    private static boolean sameCategories(List<CategorySummary> actual, Map<String, long[]> expected) {
+        if (actual.size() != expected.size()) return false;
+        for (CategorySummary c : actual) {
+            long[] e = expected.get(c.getName().toLowerCase());
+            if (e == null || e[0] != c.getDepositsCents() || e[1] != c.getPaymentsCents() || e[2] != c.getCount()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * CRC32 of every byte of [0, length), so any edit of those bytes, even one
+     * that keeps the length, changes it
+     */
+    static long fingerprint(Path csv, long length) throws IOException {
+        CRC32 crc = new CRC32();
+        update(crc, csv, 0, length);
+        return crc.getValue();
+    }
+
+    /**
+     * Feeds csv[from, to) to crc; a log extends its fingerprint this way as the file grows
+     */
+    static void update(CRC32 crc, Path csv, long from, long to) throws IOException {
+        if (from >= to) return;
+        try (FileChannel in = FileChannel.open(csv, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20);
+            for (long pos = from; pos < to; ) {
+                buf.clear().limit((int) Math.min(buf.capacity(), to - pos));
+                int n = in.read(buf, pos);
+                if (n < 0) throw new IOException("CSV ended early");
+                pos += n;
+                buf.flip();
+                crc.update(buf);
+            }
+        }
+    }
+}
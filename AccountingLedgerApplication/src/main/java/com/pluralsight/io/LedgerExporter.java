@@ -0,0 +1,180 @@
+package com.pluralsight.io;
+
+import com.pluralsight.Transaction;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams transactions out as Markdown, pipe-delimited CSV or JSON Lines.
+ *
+ * Rows are formatted one at a time into a reused StringBuilder (padding and
+ * amounts by hand, no String.format) and pushed through a 64 KB buffered
+ * writer, optionally gzipped, into a FileChannel; so memory stays constant
+ * however many rows are exported. Any row list works as input: the ledger's
+ * own (lazy) lists, a search, a {@link com.pluralsight.store.LedgerStore#query}
+ * result or a date range. Files are written next to the target and moved
+ * into place when complete. JSON escaping and amounts come from {@link LedgerJson}.
+ */
+public final class LedgerExporter {
+    /**
+     * Output formats; the extension picks one in {@link #forFile}
+     */
+    public enum Format {
+        /** The table the ledger shows, as a Markdown table */
+        MARKDOWN(".md"),
+        /** The ledger's own pipe-delimited lines, so an export can be loaded again */
+        CSV(".csv"),
+        /** One JSON object per line, the fields the server returns */
+        JSONL(".jsonl");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() { return extension; }
+
+        /** Format for a file name such as "may.csv" or "ledger.jsonl.gz" */
+        public static Format forFile(Path file) {
+            String name = stripGzip(file.getFileName().toString().toLowerCase());
+            for (Format f : values()) {
+                if (name.endsWith(f.extension)) return f;
+            }
+            if (name.endsWith(".markdown")) return MARKDOWN;
+            throw new IllegalArgumentException("Unknown export type (use .md, .csv or .jsonl, optionally .gz): " + file);
+        }
+    }
+
+    /**
+     * Told how far an export has got: every few thousand rows and once at the end
+     */
+    @FunctionalInterface
+    public interface Progress {
+        void exported(int rows, int total);
+    }
+
+    private static final int BUFFER = 1 << 16;
+    private static final int REPORT_EVERY = 8192;
+
+    private static final String MARKDOWN_HEADER =
+            "| Date       | Time   | Description          | Vendor          | Category        | Amount   |\n"
+            + "|------------|--------|----------------------|-----------------|-----------------|----------|\n";
+
+    private LedgerExporter() {
+    }
+
+    /**
+     * True if the file name ends in .gz
+     */
+    public static boolean isGzip(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".gz");
+    }
+
+    /**
+     * Exports rows to file in the format its name says (gzipped for .gz);
+     * returns the number of bytes written to disk
+     */
+    public static long export(List<Transaction> rows, Path file, Progress progress) throws IOException {
+        return export(rows, file, Format.forFile(file), isGzip(file), progress);
+    }
+
+    public static long export(List<Transaction> rows, Path file, Format format, boolean gzip, Progress progress)
+            throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            if (gzip) out = new GZIPOutputStream(out, BUFFER);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER)) {
+                write(rows, writer, format, progress);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(file);
+    }
+
+    /**
+     * Writes rows to out (which the caller flushes and closes)
+     */
+    public static void write(List<Transaction> rows, Writer out, Format format, Progress progress) throws IOException {
+        StringBuilder line = new StringBuilder(256);
+        if (format == Format.MARKDOWN) out.write(MARKDOWN_HEADER);
+        int total = rows.size();
+        for (int i = 0; i < total; i++) {
+            Transaction t = rows.get(i);
+            line.setLength(0);
+            switch (format) {
+                case MARKDOWN: appendMarkdown(line, t); break;
+                case CSV:      appendCsv(line, t); break;
+                default:       appendJson(line, t); break;
+            }
+            line.append('\n');
+            out.append(line);
+            if (progress != null && (i + 1) % REPORT_EVERY == 0) progress.exported(i + 1, total);
+        }
+        if (progress != null) progress.exported(total, total);
+    }
+
+    // | date | time | %-20s | %-15s | %-15s | %8.2f |
+    private static void appendMarkdown(StringBuilder sb, Transaction t) {
+        sb.append("| ").append(t.getDate()).append(" | ").append(t.getTime()).append(" | ");
+        pad(sb, t.getDescription(), 20).append(" | ");
+        pad(sb, t.getVendor(), 15).append(" | ");
+        pad(sb, t.getCategory(), 15).append(" | ");
+        int start = sb.length();
+        LedgerJson.appendCents(sb, t.getAmountCents());
+        for (int i = sb.length() - start; i < 8; i++) sb.insert(start, ' ');
+        sb.append(" |");
+    }
+
+    // date|time|description|vendor|category|amount|balance, as Transaction.toCsv writes it
+    private static void appendCsv(StringBuilder sb, Transaction t) {
+        sb.append(t.getDate()).append('|').append(t.getTime()).append('|')
+                .append(t.getDescription()).append('|').append(t.getVendor()).append('|')
+                .append(t.getCategory()).append('|');
+        LedgerJson.appendCents(sb, t.getAmountCents());
+        sb.append('|');
+        LedgerJson.appendCents(sb, Math.round(t.getBalance() * 100));
+    }
+
+    private static void appendJson(StringBuilder sb, Transaction t) {
+        sb.append("{\"date\":");
+        LedgerJson.appendString(sb, t.getDate()).append(",\"time\":");
+        LedgerJson.appendString(sb, t.getTime()).append(",\"description\":");
+        LedgerJson.appendString(sb, t.getDescription()).append(",\"vendor\":");
+        LedgerJson.appendString(sb, t.getVendor()).append(",\"category\":");
+        LedgerJson.appendString(sb, t.getCategory()).append(",\"amount\":");
+        LedgerJson.appendCents(sb, t.getAmountCents());
+        sb.append(",\"balance\":");
+        LedgerJson.appendCents(sb, Math.round(t.getBalance() * 100));
+        sb.append('}');
+    }
+
+    // %-<width>s: left-aligned, never truncated
+    private static StringBuilder pad(StringBuilder sb, String s, int width) {
+        sb.append(s);
+        for (int i = s.length(); i < width; i++) sb.append(' ');
+        return sb;
+    }
+
+    private static String stripGzip(String name) {
+        return name.endsWith(".gz") ? name.substring(0, name.length() - 3) : name;
+    }
+}
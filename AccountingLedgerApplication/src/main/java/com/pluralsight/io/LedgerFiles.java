@@ -0,0 +1,71 @@
+package com.pluralsight.io;
+
+import com.pluralsight.metrics.LedgerMetrics;
+import com.pluralsight.store.LedgerStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Startup loading shared by the console app and the HTTP server: the latest
+ * {@link LedgerCheckpoint} plus the CSV written after it, else the binary
+ * segment when it was written from the CSV as it is now, else the whole CSV.
+ */
+public final class LedgerFiles {
+
+    private LedgerFiles() {
+    }
+
+    /**
+     * Loads csv (or segment, if it mirrors csv) into an empty store. The result
+     * describes the CSV, so a {@link LedgerLog} can attach to it either way.
+     */
+    public static MappedLedgerLoader.LoadResult load(Path csv, Path segment, LedgerStore store) throws IOException {
+        return load(csv, segment, store, new LoadProgress());
+    }
+
+    /**
+     * Same, reporting progress for a caller on another thread
+     */
+    public static MappedLedgerLoader.LoadResult load(Path csv, Path segment, LedgerStore store,
+                                                     LoadProgress progress) throws IOException {
+        try (LedgerMetrics.Timer t = LedgerMetrics.time(LedgerMetrics.Operation.LOAD)) {
+            MappedLedgerLoader.LoadResult loaded = loadFirstCurrent(csv, segment, store, progress);
+            t.rows(store.size()).bytes(Files.exists(csv) ? Files.size(csv) : 0);
+            return loaded;
+        }
+    }
+
+    private static MappedLedgerLoader.LoadResult loadFirstCurrent(Path csv, Path segment, LedgerStore store,
+                                                                  LoadProgress progress) throws IOException {
+        try {
+            MappedLedgerLoader.LoadResult loaded = LedgerCheckpoint.load(csv, store, progress);
+            if (loaded != null) return loaded;
+        } catch (IOException e) {
+            // Stale or damaged checkpoint: fall back to a full load
+            store.clear();
+            progress.reset();
+        }
+        if (isSegmentCurrent(csv, segment)) {
+            try {
+                return BinarySegmentReader.load(segment, store, progress);
+            } catch (IOException e) {
+                // Damaged binary copy: the CSV is the source of truth
+                store.clear();
+                progress.reset();
+            }
+        }
+        return new MappedLedgerLoader(ForkJoinPool.commonPool(), progress).load(csv, store);
+    }
+
+    /**
+     * True if segment mirrors csv: checked against the CSV length and fingerprint
+     * recorded in the segment, not modification times, which a restore
+     * ({@code cp -p}, {@code git checkout}) or clock skew can put in any order
+     */
+    public static boolean isSegmentCurrent(Path csv, Path segment) throws IOException {
+        return Files.exists(segment) && Files.exists(csv) && BinarySegmentReader.isCopyOf(segment, csv);
+    }
+}
@@ -0,0 +1,75 @@
+package com.pluralsight.io;
+
+import com.pluralsight.store.ColumnarLedgerStore;
+import com.pluralsight.store.LedgerStore;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+/**
+ * Converts a ledger between the pipe-delimited CSV file and the binary segment format.
+ *
+ * <pre>
+ * java com.pluralsight.io.LedgerFormatConverter to-binary transactions.csv transactions.ldgb
+ * java com.pluralsight.io.LedgerFormatConverter to-csv    transactions.ldgb transactions.csv
+ * </pre>
+ */
+public class LedgerFormatConverter {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 || !(args[0].equals("to-binary") || args[0].equals("to-csv"))) {
+            System.err.println("usage: LedgerFormatConverter (to-binary|to-csv) <in> <out>");
+            System.exit(2);
+        }
+        Path in = Path.of(args[1]);
+        Path out = Path.of(args[2]);
+        long started = System.nanoTime();
+        int rows = args[0].equals("to-binary") ? csvToBinary(in, out) : binaryToCsv(in, out);
+        System.out.printf("Converted %,d rows in %.1f ms%n", rows, (System.nanoTime() - started) / 1_000_000.0);
+    }
+
+    /**
+     * Writes the live rows of a CSV ledger as a binary segment; returns the row count
+     */
+    public static int csvToBinary(Path csv, Path segment) throws IOException {
+        LedgerStore store = new ColumnarLedgerStore();
+        long length = Files.size(csv);
+        MappedLedgerLoader.LoadResult loaded = new MappedLedgerLoader().load(csv, store);
+        BinarySegmentWriter.write(store, segment, loaded.getRows(), loaded.getDeadOrdinals(),
+                length, LedgerCheckpoint.fingerprint(csv, length));
+        return store.size();
+    }
+
+    /**
+     * Writes a binary segment back out as a compacted CSV ledger; returns the row count
+     */
+    public static int binaryToCsv(Path segment, Path csv) throws IOException {
+        LedgerStore store = new ColumnarLedgerStore();
+        BinarySegmentReader.load(segment, store);
+        try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            for (int row = 0; row < store.size(); row++) {
+                out.write(store.get(row).toCsv());
+                out.newLine();
+            }
+        }
+        return store.size();
+    }
+
+    /**
+     * Saves the store next to its CSV log, mirroring the log's current records;
+     * a segment already written at this log position is left alone
+     */
+    public static void snapshot(LedgerStore store, LedgerLog log, Path segment) throws IOException {
+        LedgerLog.Position at = log.position();
+        if (Files.exists(segment) && BinarySegmentReader.isCopyOf(segment, at)) return;
+        BinarySegmentWriter.write(store, segment, at.getRecords(), at.getDeadOrdinals(),
+                at.getOffset(), at.getFingerprint());
+    }
+
+    private LedgerFormatConverter() {
+    }
+}
@@ -0,0 +1,50 @@
+package com.pluralsight.io;
+
+/**
+ * JSON strings and amounts as the ledger writes them, shared by the
+ * {@link LedgerExporter} and the HTTP server so their escaping and number
+ * formatting cannot drift apart. Amounts are whole cents written as -123.45.
+ */
+public final class LedgerJson {
+
+    private LedgerJson() {
+    }
+
+    /** s as a quoted JSON string */
+    public static String string(String s) {
+        return appendString(new StringBuilder(s.length() + 2), s).toString();
+    }
+
+    /** cents as a JSON number with two decimals */
+    public static String cents(long cents) {
+        return appendCents(new StringBuilder(24), cents).toString();
+    }
+
+    public static StringBuilder appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':  sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 15, 16));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"');
+    }
+
+    public static StringBuilder appendCents(StringBuilder sb, long cents) {
+        long abs = Math.abs(cents);
+        if (cents < 0) sb.append('-');
+        int frac = (int) (abs % 100);
+        return sb.append(abs / 100).append('.').append((char) ('0' + frac / 10)).append((char) ('0' + frac % 10));
+    }
+}
@@ -0,0 +1,457 @@
+package com.pluralsight.io;
+
+import com.pluralsight.Transaction;
+import com.pluralsight.metrics.LedgerMetrics;
+import com.pluralsight.store.LedgerListener;
+import com.pluralsight.store.RowBatch;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only persistence for the ledger file.
+ *
+ * New rows are appended as ordinary pipe-delimited lines and deletions as
+ * tombstone lines ({@code #DEL|<ordinal>}), where the ordinal is the position of
+ * the deleted record among the valid data lines of the file. Nothing is ever
+ * rewritten in place; {@link MappedLedgerLoader} replays the tombstones on load.
+ *
+ * Writes go through a {@link GroupCommitWriter}, so flushes from many threads
+ * share one write (and one fsync with {@code -Dledger.durability=fsync};
+ * {@code -Dledger.commitWindowMicros} lets the writer wait for more).
+ *
+ * Once tombstones make up {@link #COMPACT_RATIO} of the records a background
+ * thread copies the live lines to a temp file and atomically renames it over
+ * the ledger. The compactor works from the file alone, so it never touches
+ * the in-memory store; only the final tail copy and rename hold the log lock.
+ *
+ * The balance column of an appended line is the running balance when it was
+ * written, so after a deletion the lines that follow it are off until the next
+ * compaction, which rewrites the column of every record it keeps.
+ */
+public class LedgerLog implements LedgerListener {
+    public static final String TOMBSTONE_PREFIX = "#DEL|";
+    // Compact once tombstones reach this fraction of the data records
+    static final double COMPACT_RATIO = 0.25;
+
+    private final Path file;
+    private final Path tempFile;
+    private final GroupCommitWriter writer;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ledger-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Data records ever written to the current file (the next ordinal)
+    private int records;
+    // Ordinals tombstoned in the current file
+    private final BitSet deadOrdinals = new BitSet();
+    // File ordinal of every store slot (-1 for a row that could not be written)
+    private int[] ordinalOfSlot = new int[1024];
+    private int slots;
+    // Lines waiting for the next flush
+    private final StringBuilder pending = new StringBuilder();
+    // Decide, exactly as the loader does, whether a new line will count as a record
+    private final CsvRecordParser parser = new CsvRecordParser();
+    private final RowBatch scratch = new RowBatch();
+    private Future<?> compaction;
+    // Fingerprint of the file's first fingerprinted bytes, extended by position() as the file grows
+    private final CRC32 fingerprint = new CRC32();
+    private long fingerprinted;
+
+    /**
+     * Attaches to a file whose records were just loaded into slots [0, records) of an empty store
+     */
+    public LedgerLog(Path file, int records, BitSet tombstones) {
+        this(file, records, tombstones,
+                GroupCommitWriter.Durability.parse(System.getProperty("ledger.durability", "flush")),
+                Long.getLong("ledger.commitWindowMicros", 0));
+    }
+
+    /**
+     * Same, with an explicit durability mode and commit window for the writer thread
+     */
+    public LedgerLog(Path file, int records, BitSet tombstones,
+                     GroupCommitWriter.Durability durability, long commitWindowMicros) {
+        this.file = file;
+        this.tempFile = file.resolveSibling(file.getFileName() + ".compact");
+        this.writer = new GroupCommitWriter(file, durability, commitWindowMicros);
+        this.records = records;
+        this.deadOrdinals.or(tombstones);
+        ensureSlots(records);
+        for (int i = 0; i < records; i++) ordinalOfSlot[i] = i;
+        this.slots = records;
+    }
+
+    /**
+     * Attaches to a freshly loaded file. Records the load dropped (see
+     * {@link MappedLedgerLoader.LoadResult#getDroppedOrdinals()}) hold no slot;
+     * if replaying the tombstones made the store compact, no deleted record does.
+     */
+    public LedgerLog(Path file, MappedLedgerLoader.LoadResult loaded, int storeSlots) {
+        this(file, loaded.getRows(), loaded.getDeadOrdinals());
+        if (storeSlots != records) {
+            BitSet slotless = storeSlots == records - deadOrdinals.cardinality()
+                    ? deadOrdinals : loaded.getDroppedOrdinals();
+            int slot = 0;
+            for (int o = 0; o < records; o++) {
+                if (!slotless.get(o)) ordinalOfSlot[slot++] = o;
+            }
+            slots = slot;
+        }
+    }
+
+    // ---- store events ----
+
+    @Override
+    public synchronized void rowAppended(int slot, Transaction row) {
+        ensureSlots(slot + 1);
+        slots = slot + 1;
+        String line = row.toCsv();
+        if (!isRecord(line)) {
+            // The loader would skip it, so giving it an ordinal would shift every later tombstone
+            ordinalOfSlot[slot] = -1;
+            System.err.println("Ledger row not saved (unreadable as a ledger line): " + line);
+            return;
+        }
+        ordinalOfSlot[slot] = records++;
+        pending.append(line).append('\n');
+    }
+
+    @Override
+    public synchronized void rowRemoved(int slot) {
+        int ordinal = ordinalOfSlot[slot];
+        if (ordinal < 0) return; // never written
+        deadOrdinals.set(ordinal);
+        pending.append(TOMBSTONE_PREFIX).append(ordinal).append('\n');
+    }
+
+    @Override
+    public synchronized void slotsCompacted(BitSet removedSlots) {
+        int write = 0;
+        for (int read = 0; read < slots; read++) {
+            if (!removedSlots.get(read)) ordinalOfSlot[write++] = ordinalOfSlot[read];
+        }
+        slots = write;
+    }
+
+    // ---- persistence ----
+
+    /**
+     * Hands everything recorded since the last commit to the writer thread as
+     * one record and schedules a compaction if tombstones have piled up. The
+     * future completes once this and every earlier change is durable.
+     */
+    public synchronized CompletableFuture<Void> commit() {
+        CompletableFuture<Void> done = submitPending();
+        if (deadOrdinals.cardinality() >= Math.max(1, records * COMPACT_RATIO)
+                && (compaction == null || compaction.isDone())) {
+            compaction = compactor.submit(this::compactQuietly);
+        }
+        return done;
+    }
+
+    /**
+     * Commits and waits; the wait happens outside the lock, so concurrent
+     * callers end up in the same batch
+     */
+    public void flush() throws IOException {
+        GroupCommitWriter.await(commit());
+    }
+
+    /**
+     * Waits for a running compaction and stops the writer thread, e.g. before the application exits
+     */
+    public void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.close();
+    }
+
+    public synchronized int getRecords()    { return records; }
+    public synchronized int getTombstones() { return deadOrdinals.cardinality(); }
+    public synchronized BitSet getDeadOrdinals() { return (BitSet) deadOrdinals.clone(); }
+
+    public GroupCommitWriter.Durability getDurability() { return writer.getDurability(); }
+
+    /**
+     * Writes what is pending and returns where the file ends now, e.g. for a
+     * checkpoint; the store must not change meanwhile
+     */
+    public synchronized Position position() throws IOException {
+        flushPending();
+        // Under the lock, so a compaction cannot swap the file between measuring and fingerprinting it
+        long length = Files.exists(file) ? Files.size(file) : 0;
+        if (length < fingerprinted) {
+            fingerprint.reset();
+            fingerprinted = 0;
+        }
+        LedgerCheckpoint.update(fingerprint, file, fingerprinted, length);
+        fingerprinted = length;
+        return new Position(length, records, (BitSet) deadOrdinals.clone(), fingerprint.getValue());
+    }
+
+    /**
+     * End of the file at one moment: byte length, data records, tombstoned
+     * ordinals and a fingerprint of the bytes so far
+     */
+    public static class Position {
+        private final long offset;
+        private final int records;
+        private final BitSet deadOrdinals;
+        private final long fingerprint;
+
+        Position(long offset, int records, BitSet deadOrdinals, long fingerprint) {
+            this.offset = offset;
+            this.records = records;
+            this.deadOrdinals = deadOrdinals;
+            this.fingerprint = fingerprint;
+        }
+
+        public long getOffset()          { return offset; }
+        public int getRecords()          { return records; }
+        public BitSet getDeadOrdinals()  { return deadOrdinals; }
+        public long getFingerprint()     { return fingerprint; }
+    }
+
+    private CompletableFuture<Void> submitPending() {
+        if (pending.length() == 0) return writer.lastSubmitted();
+        byte[] bytes = pending.toString().getBytes(StandardCharsets.UTF_8);
+        pending.setLength(0);
+        return writer.submit(bytes);
+    }
+
+    // Everything recorded so far, on disk; the caller holds the lock so nothing new arrives meanwhile
+    private void flushPending() throws IOException {
+        submitPending();
+        writer.drain();
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException e) {
+            // The original file is untouched; the next flush will try again
+            System.err.println("Ledger compaction failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrites the file without tombstoned records or tombstone lines
+     */
+    void compact() throws IOException {
+        try (LedgerMetrics.Timer t = LedgerMetrics.time(LedgerMetrics.Operation.REWRITE)) {
+            rewrite();
+            synchronized (this) {
+                t.rows(records).bytes(Files.size(file));
+            }
+        }
+    }
+
+    private void rewrite() throws IOException {
+        long snapshotLength;
+        BitSet dead;
+        synchronized (this) {
+            flushPending();
+            snapshotLength = Files.size(file);
+            dead = (BitSet) deadOrdinals.clone();
+        }
+
+        // Slow part without the lock: copy live lines of [0, snapshotLength) to the temp file
+        LineCopier copier = new LineCopier(dead);
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), 1 << 16)) {
+            copier.copy(in, 0, snapshotLength, out, false);
+
+            synchronized (this) {
+                // Rows appended or deleted meanwhile: carry the tail over, renumbering tombstones
+                flushPending();
+                long length = in.size();
+                copier.copy(in, snapshotLength, length, out, true);
+                out.close();
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                writer.reopen(); // its channel still points at the old file
+                fingerprint.reset();
+                fingerprinted = 0;
+
+                for (int slot = 0; slot < slots; slot++) {
+                    if (ordinalOfSlot[slot] >= 0) ordinalOfSlot[slot] = copier.renumber(ordinalOfSlot[slot]);
+                }
+                records -= dead.cardinality();
+                deadOrdinals.clear();
+                deadOrdinals.or(copier.tailTombstones);
+            }
+        }
+    }
+
+    /**
+     * Ordinal named by a tombstone line, or -1 if the line is not a valid tombstone
+     */
+    static int parseTombstone(String line) {
+        if (!line.startsWith(TOMBSTONE_PREFIX)) return -1;
+        try {
+            int ordinal = Integer.parseInt(line.substring(TOMBSTONE_PREFIX.length()).trim());
+            return ordinal >= 0 ? ordinal : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // True if the loader will read line back as one data record (and so count an ordinal for it)
+    private boolean isRecord(String line) {
+        if (line.isEmpty() || line.charAt(0) == '#') return false;
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        scratch.clear();
+        try {
+            parser.read(bytes, 0, bytes.length, scratch);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void ensureSlots(int needed) {
+        if (needed > ordinalOfSlot.length) {
+            ordinalOfSlot = Arrays.copyOf(ordinalOfSlot, Math.max(needed, ordinalOfSlot.length * 2));
+        }
+    }
+
+    /**
+     * Streams lines from the old file to the new one, dropping dead records and
+     * old tombstones. Lines the parser rejects are copied through unchanged, so a
+     * rewrite never destroys what the loader merely skips. Ordinals are counted
+     * exactly the way the loader counts them: one per line the parser accepts.
+     * Kept records with a balance column get the running balance of the kept
+     * records, in file order, as the store computes it.
+     */
+    private static class LineCopier {
+        private final BitSet dead;
+        private final long[] deadWords;
+        private final int[] deadBefore;
+        private final int deadTotal;
+        final BitSet tailTombstones = new BitSet();
+        private final CsvRecordParser parser = new CsvRecordParser();
+        private final RowBatch scratch = new RowBatch();
+        private int ordinal;
+        private long balanceCents;
+
+        LineCopier(BitSet dead) {
+            this.dead = dead;
+            // deadBefore[w] = dead ordinals below w * 64, so renumbering is O(1)
+            deadWords = dead.toLongArray();
+            deadBefore = new int[deadWords.length];
+            for (int w = 1; w < deadWords.length; w++) {
+                deadBefore[w] = deadBefore[w - 1] + Long.bitCount(deadWords[w - 1]);
+            }
+            deadTotal = dead.cardinality();
+        }
+
+        /**
+         * New ordinal of a surviving record once the dead ones are gone
+         */
+        int renumber(int oldOrdinal) {
+            int w = oldOrdinal >>> 6;
+            if (w >= deadWords.length) return oldOrdinal - deadTotal;
+            long below = deadWords[w] & ((1L << (oldOrdinal & 63)) - 1);
+            return oldOrdinal - deadBefore[w] - Long.bitCount(below);
+        }
+
+        void copy(FileChannel in, long from, long to, OutputStream out, boolean tail) throws IOException {
+            ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+            byte[] line = new byte[256];
+            int len = 0;
+            long pos = from;
+            while (pos < to) {
+                buf.clear();
+                buf.limit((int) Math.min(buf.capacity(), to - pos));
+                int n = in.read(buf, pos);
+                if (n <= 0) break;
+                pos += n;
+                for (int i = 0; i < n; i++) {
+                    byte b = buf.get(i);
+                    if (b == '\n') {
+                        line(line, len, out, tail);
+                        len = 0;
+                    } else {
+                        if (len == line.length) line = Arrays.copyOf(line, len * 2);
+                        line[len++] = b;
+                    }
+                }
+            }
+            if (len > 0) line(line, len, out, tail);
+        }
+
+        private void line(byte[] line, int len, OutputStream out, boolean tail) throws IOException {
+            if (len > 0 && line[len - 1] == '\r') len--;
+            if (len == 0) return;
+            if (line[0] == '#') {
+                int old = parseTombstone(new String(line, 0, len, StandardCharsets.UTF_8));
+                if (old < 0) {
+                    keep(line, len, out); // not a tombstone: the loader counts it as a bad line
+                } else if (tail) {
+                    // A deletion that happened during compaction: point it at the new ordinal
+                    int newOrdinal = renumber(old);
+                    tailTombstones.set(newOrdinal);
+                    out.write((TOMBSTONE_PREFIX + newOrdinal + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+                return;
+            }
+            scratch.clear();
+            try {
+                parser.read(line, 0, len, scratch);
+            } catch (IllegalArgumentException e) {
+                keep(line, len, out); // the loader skips it too, so it never had an ordinal
+                return;
+            }
+            if (!dead.get(ordinal++)) keepRecord(line, len, out);
+        }
+
+        private void keepRecord(byte[] line, int len, OutputStream out) throws IOException {
+            balanceCents += parser.amountCents();
+            // Fields as String.split sees them: trailing empty ones do not count
+            int end = len;
+            while (end > 0 && line[end - 1] == '|') end--;
+            int pipes = 0, lastPipe = -1;
+            for (int i = 0; i < end; i++) {
+                if (line[i] == '|') {
+                    pipes++;
+                    lastPipe = i;
+                }
+            }
+            if (pipes != 6) {
+                keep(line, len, out); // no balance column to fix
+                return;
+            }
+            out.write(line, 0, lastPipe + 1);
+            out.write(LedgerJson.cents(balanceCents).getBytes(StandardCharsets.US_ASCII));
+            out.write('\n');
+        }
+
+        private static void keep(byte[] line, int len, OutputStream out) throws IOException {
+            out.write(line, 0, len);
+            out.write('\n');
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.pluralsight.io;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a load running on other threads, in bytes of input. Loaders
+ * add each file's size when they start and report bytes as chunks or blocks
+ * finish; anyone may poll {@link #fraction()}.
+ */
+public class LoadProgress {
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong done = new AtomicLong();
+
+    void addTotal(long bytes) {
+        total.addAndGet(bytes);
+    }
+
+    void advance(long bytes) {
+        done.addAndGet(bytes);
+    }
+
+    /**
+     * Forgets an abandoned attempt, e.g. a stale checkpoint before the full load
+     */
+    void reset() {
+        total.set(0);
+        done.set(0);
+    }
+
+    /** Share of the work done so far, 0 to 1 */
+    public double fraction() {
+        long t = total.get();
+        return t == 0 ? 0 : Math.min(1.0, (double) done.get() / t);
+    }
+}
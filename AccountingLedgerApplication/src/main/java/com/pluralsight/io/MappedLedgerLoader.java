@@ -0,0 +1,272 @@
+package com.pluralsight.io;
+
+import com.pluralsight.store.LedgerStore;
+import com.pluralsight.store.RowBatch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Loads a pipe-delimited ledger file by memory-mapping it, cutting it into
+ * line-aligned chunks and parsing the chunks in parallel on a fork-join pool.
+ * Each chunk task owns one {@link CsvRecordParser} and fills a {@link RowBatch};
+ * the batches are then appended to the store in file order. Tombstone lines
+ * written by {@link LedgerLog} are replayed once every chunk is in.
+ */
+public class MappedLedgerLoader {
+    // Target size of one parse chunk (lines are never split across chunks)
+    static final int CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private final ForkJoinPool pool;
+    private final LoadProgress progress;
+
+    public MappedLedgerLoader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public MappedLedgerLoader(ForkJoinPool pool) {
+        this(pool, new LoadProgress());
+    }
+
+    /**
+     * Reports parsed and appended bytes to progress (each byte counts twice)
+     */
+    public MappedLedgerLoader(ForkJoinPool pool, LoadProgress progress) {
+        this.pool = pool;
+        this.progress = progress;
+    }
+
+    /**
+     * Outcome of one load: record, tombstone and bad-line counts plus timing
+     */
+    public static class LoadResult {
+        private final int rows;
+        private final BitSet deadOrdinals;
+        private final int badLines;
+        private final long elapsedNanos;
+        private final BitSet droppedOrdinals;
+
+        public LoadResult(int rows, BitSet deadOrdinals, int badLines, long elapsedNanos) {
+            this(rows, deadOrdinals, badLines, elapsedNanos, new BitSet());
+        }
+
+        /**
+         * droppedOrdinals: deleted records that never got a store slot because
+         * they came from a compacted copy (the rest were loaded, then removed)
+         */
+        public LoadResult(int rows, BitSet deadOrdinals, int badLines, long elapsedNanos, BitSet droppedOrdinals) {
+            this.rows = rows;
+            this.deadOrdinals = deadOrdinals;
+            this.badLines = badLines;
+            this.elapsedNanos = elapsedNanos;
+            this.droppedOrdinals = droppedOrdinals;
+        }
+
+        /** Data records read, including ones a tombstone later removed */
+        public int getRows()                        { return rows; }
+        /** Record ordinals removed by tombstones */
+        public BitSet getDeadOrdinals()             { return deadOrdinals; }
+        public int getTombstones()                  { return deadOrdinals.cardinality(); }
+        public int getBadLines()                    { return badLines; }
+        public long getElapsedNanos()               { return elapsedNanos; }
+        public BitSet getDroppedOrdinals()          { return droppedOrdinals; }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d rows (%,d deleted), %,d bad lines in %.1f ms (%,.0f rows/sec)",
+                    getRows(), getTombstones(), badLines, elapsedNanos / 1_000_000.0, getRowsPerSecond());
+        }
+    }
+
+    /**
+     * Reads the whole file and appends its rows to store; a missing file loads nothing
+     */
+    public LoadResult load(Path file, LedgerStore store) throws IOException {
+        long started = System.nanoTime();
+        if (!Files.exists(file)) {
+            return new LoadResult(0, new BitSet(), 0, 0);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<Chunk> chunks = parse(channel, 0);
+
+            // Append in file order in one pass; the store keeps rows chronologically
+            int base = store.slotCount();
+            int total = 0, bad = 0;
+            BitSet dead = new BitSet();
+            for (Chunk c : chunks) {
+                store.appendAll(c.rows);
+                progress.advance(c.bytes);
+                total += c.rows.size();
+                bad += c.badLines;
+                dead.or(c.tombstones);
+            }
+            // Tombstone ordinals count data records from the start of the file, i.e. slots from base
+            dead.clear(total, Math.max(total, dead.length()));
+            BitSet slots = new BitSet();
+            for (int o = dead.nextSetBit(0); o >= 0; o = dead.nextSetBit(o + 1)) slots.set(base + o);
+            store.removeSlots(slots);
+            return new LoadResult(total, dead, bad, System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Appends the part of file after byte offset to a store that already holds
+     * the first firstOrdinal records compacted (one slot per record not in dead,
+     * e.g. from a checkpoint). Tombstones in the tail may name records on either side.
+     */
+    public LoadResult loadTail(Path file, long offset, int firstOrdinal, BitSet dead, LedgerStore store) throws IOException {
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<Chunk> chunks = parse(channel, offset);
+
+            int base = store.slotCount();
+            int total = 0, bad = 0;
+            BitSet tombstones = new BitSet();
+            for (Chunk c : chunks) {
+                store.appendAll(c.rows);
+                progress.advance(c.bytes);
+                total += c.rows.size();
+                bad += c.badLines;
+                tombstones.or(c.tombstones);
+            }
+            int records = firstOrdinal + total;
+            tombstones.clear(records, Math.max(records, tombstones.length()));
+            tombstones.andNot(dead);
+
+            // Before firstOrdinal a record's slot is its rank among the survivors; after it, base + distance
+            BitSet slots = new BitSet();
+            for (int o = tombstones.nextSetBit(0); o >= 0; o = tombstones.nextSetBit(o + 1)) {
+                slots.set(o < firstOrdinal ? o - dead.get(0, o).cardinality() : base + o - firstOrdinal);
+            }
+            store.removeSlots(slots);
+
+            BitSet allDead = (BitSet) dead.clone();
+            allDead.or(tombstones);
+            return new LoadResult(records, allDead, bad, System.nanoTime() - started, dead);
+        }
+    }
+
+    // Parses [from, size) of the file in parallel, one chunk per CHUNK_SIZE bytes
+    private List<Chunk> parse(FileChannel channel, long from) throws IOException {
+        List<long[]> ranges = splitLineAligned(channel, from, CHUNK_SIZE);
+        List<ChunkTask> tasks = new ArrayList<>(ranges.size());
+        for (long[] range : ranges) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, range[0], range[1] - range[0]);
+            tasks.add(new ChunkTask(buf, progress));
+            // Once for parsing, once for appending
+            progress.addTotal(2 * (range[1] - range[0]));
+        }
+        return pool.invoke(new AllChunks(tasks));
+    }
+
+    /**
+     * Cuts [from, size) into ranges of roughly chunkSize bytes that end just after a newline
+     */
+    static List<long[]> splitLineAligned(FileChannel channel, long from, int chunkSize) throws IOException {
+        long size = channel.size();
+        List<long[]> ranges = new ArrayList<>();
+        long start = from;
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        while (start < size) {
+            long end = Math.min(size, start + chunkSize);
+            // Walk forward to the next newline so no line straddles two chunks
+            while (end < size) {
+                probe.clear();
+                int n = channel.read(probe, end);
+                if (n <= 0) { end = size; break; }
+                int nl = -1;
+                for (int i = 0; i < n; i++) {
+                    if (probe.get(i) == '\n') { nl = i; break; }
+                }
+                if (nl >= 0) { end += nl + 1; break; }
+                end += n;
+            }
+            ranges.add(new long[]{start, Math.min(end, size)});
+            start = end;
+        }
+        return ranges;
+    }
+
+    // Parsed rows of one chunk, oldest-first as they appear in the file
+    static class Chunk {
+        final RowBatch rows = new RowBatch();
+        int bytes;
+        final BitSet tombstones = new BitSet();
+        int badLines;
+    }
+
+    static class AllChunks extends RecursiveTask<List<Chunk>> {
+        private final List<ChunkTask> tasks;
+
+        AllChunks(List<ChunkTask> tasks) { this.tasks = tasks; }
+
+        @Override
+        protected List<Chunk> compute() {
+            invokeAll(tasks);
+            List<Chunk> chunks = new ArrayList<>(tasks.size());
+            for (ChunkTask t : tasks) chunks.add(t.join());
+            return chunks;
+        }
+    }
+
+    static class ChunkTask extends RecursiveTask<Chunk> {
+        private final MappedByteBuffer buf;
+
+        private final LoadProgress progress;
+
+        ChunkTask(MappedByteBuffer buf, LoadProgress progress) {
+            this.buf = buf;
+            this.progress = progress;
+        }
+
+        @Override
+        protected Chunk compute() {
+            Chunk chunk = new Chunk();
+            CsvRecordParser parser = new CsvRecordParser();
+            byte[] line = new byte[256];
+            int limit = buf.limit();
+            int pos = 0;
+            while (pos < limit) {
+                int end = pos;
+                while (end < limit && buf.get(end) != '\n') end++;
+                int len = end - pos;
+                // Tolerate Windows line endings
+                if (len > 0 && buf.get(end - 1) == '\r') len--;
+                if (len > 0) {
+                    if (line.length < len) line = new byte[Math.max(len, line.length * 2)];
+                    buf.get(pos, line, 0, len);
+                    if (line[0] == '#') {
+                        int ordinal = LedgerLog.parseTombstone(new String(line, 0, len, StandardCharsets.UTF_8));
+                        if (ordinal >= 0) chunk.tombstones.set(ordinal); else chunk.badLines++;
+                    } else {
+                        try {
+                            parser.read(line, 0, len, chunk.rows);
+                        } catch (IllegalArgumentException e) {
+                            chunk.badLines++;
+                        }
+                    }
+                }
+                pos = end + 1;
+            }
+            chunk.bytes = limit;
+            progress.advance(limit);
+            return chunk;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.pluralsight.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram in nanoseconds with log-linear buckets: exact
+ * below 16 ns, then 16 buckets per power of two, so a percentile read from it
+ * is within about 6% of the true value. Recording is a few atomic adds and
+ * never allocates; memory is fixed (976 buckets).
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        buckets.incrementAndGet(index(v));
+        count.increment();
+        totalNanos.add(v);
+        maxNanos.accumulate(v);
+    }
+
+    public long count()      { return count.sum(); }
+    public long totalNanos() { return totalNanos.sum(); }
+    public long maxNanos()   { return maxNanos.get(); }
+
+    /**
+     * Smallest recorded latency that percent of the recordings do not exceed
+     * (upper edge of its bucket, capped at the max); 0 when empty
+     */
+    public long percentile(double percent) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percent / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return Math.min(upperBound(i), maxNanos());
+        }
+        return maxNanos();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    static int index(long v) {
+        if (v < SUB) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+        return (exp - SUB_BITS + 1) * SUB + sub;
+    }
+
+    // Largest value that falls into bucket i
+    static long upperBound(int i) {
+        if (i < SUB) return i;
+        int exp = i / SUB + SUB_BITS - 1;
+        long width = 1L << (exp - SUB_BITS);
+        long upper = (1L << exp) + (i % SUB + 1) * width - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+}
@@ -0,0 +1,204 @@
+package com.pluralsight.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process counters and latency histograms for the ledger's hot paths.
+ *
+ * Each timed operation records its latency, rows touched and bytes moved
+ * here and, when a Flight Recorder recording is running, as a
+ * {@code com.pluralsight.LedgerOperation} event. Usage:
+ * <pre>
+ * try (LedgerMetrics.Timer t = LedgerMetrics.time(Operation.SEARCH)) {
+ *     ...
+ *     t.rows(results.size());
+ * }
+ * </pre>
+ * Read the numbers with {@link #snapshot()}, the hidden "metrics" command or
+ * JMX ({@link #registerMBean()}).
+ */
+public final class LedgerMetrics {
+    /**
+     * The timed operations
+     */
+    public enum Operation {
+        /** Reading the CSV, log and segments at startup */
+        LOAD("load"),
+        /** Appending a batch of new rows to the log (one group commit) */
+        SAVE("save"),
+        /** Rewriting the whole log (compaction) */
+        REWRITE("rewrite"),
+        /** Recomputing running balances and the balance index */
+        REBUILD("rebuild"),
+        /** A search or query over the store */
+        SEARCH("search"),
+        /** Removing one row or a marked set of rows */
+        DELETE("delete");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() { return label; }
+    }
+
+    public static final String OBJECT_NAME = "com.pluralsight:type=LedgerMetrics";
+
+    private static final Recorder[] RECORDERS = new Recorder[Operation.values().length];
+
+    static {
+        for (Operation op : Operation.values()) RECORDERS[op.ordinal()] = new Recorder(op.getLabel());
+    }
+
+    private LedgerMetrics() {
+    }
+
+    /**
+     * Starts timing op; close the returned timer when it is done
+     */
+    public static Timer time(Operation op) {
+        return new Timer(RECORDERS[op.ordinal()]);
+    }
+
+    /**
+     * Counters and percentiles of one operation
+     */
+    public static OperationStats stats(Operation op) {
+        return RECORDERS[op.ordinal()].stats();
+    }
+
+    /**
+     * Counters and percentiles of every operation, in enum order
+     */
+    public static List<OperationStats> snapshot() {
+        List<OperationStats> all = new ArrayList<>(RECORDERS.length);
+        for (Recorder r : RECORDERS) all.add(r.stats());
+        return all;
+    }
+
+    public static void reset() {
+        for (Recorder r : RECORDERS) r.reset();
+    }
+
+    /**
+     * Registers the {@link LedgerMetricsMXBean} with the platform MBean server
+     * (once; later calls do nothing). Returns false if JMX refused it.
+     */
+    public static synchronized boolean registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) server.registerMBean(new MXBean(), name);
+            return true;
+        } catch (JMException | SecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * One running measurement; rows and bytes may be added while it runs
+     */
+    public static final class Timer implements AutoCloseable {
+        private final Recorder recorder;
+        private final LedgerOperationEvent event;
+        private final long started;
+        private long rows;
+        private long bytes;
+        private boolean closed;
+
+        private Timer(Recorder recorder) {
+            this.recorder = recorder;
+            LedgerOperationEvent e = new LedgerOperationEvent();
+            if (e.isEnabled()) {
+                e.begin();
+                this.event = e;
+            } else {
+                this.event = null;
+            }
+            this.started = System.nanoTime();
+        }
+
+        public Timer rows(long n) {
+            rows += n;
+            return this;
+        }
+
+        public Timer bytes(long n) {
+            bytes += n;
+            return this;
+        }
+
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            recorder.record(System.nanoTime() - started, rows, bytes);
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.operation = recorder.name;
+                    event.rows = rows;
+                    event.bytes = bytes;
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    // Histogram plus row and byte totals for one operation
+    private static final class Recorder {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+
+        Recorder(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos, long rowCount, long byteCount) {
+            latency.record(nanos);
+            rows.add(rowCount);
+            bytes.add(byteCount);
+        }
+
+        OperationStats stats() {
+            return new OperationStats(name, latency.count(), rows.sum(), bytes.sum(), latency.totalNanos(),
+                    latency.percentile(50), latency.percentile(95), latency.percentile(99), latency.maxNanos());
+        }
+
+        void reset() {
+            latency.reset();
+            rows.reset();
+            bytes.reset();
+        }
+    }
+
+    private static final class MXBean implements LedgerMetricsMXBean {
+        @Override
+        public List<OperationStats> getOperations() {
+            return snapshot();
+        }
+
+        @Override
+        public OperationStats getOperation(String name) {
+            for (Recorder r : RECORDERS) {
+                if (r.name.equalsIgnoreCase(name)) return r.stats();
+            }
+            return null;
+        }
+
+        @Override
+        public void reset() {
+            LedgerMetrics.reset();
+        }
+    }
+}
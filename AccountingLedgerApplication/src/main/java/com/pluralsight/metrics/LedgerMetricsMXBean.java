@@ -0,0 +1,19 @@
+package com.pluralsight.metrics;
+
+import java.util.List;
+
+/**
+ * JMX view of {@link LedgerMetrics}, registered as
+ * {@code com.pluralsight:type=LedgerMetrics} (open it with jconsole or any JMX client)
+ */
+public interface LedgerMetricsMXBean {
+
+    /** Counters and latency percentiles of every operation */
+    List<OperationStats> getOperations();
+
+    /** One operation by name (load, save, rewrite, rebuild, search, delete), or null */
+    OperationStats getOperation(String name);
+
+    /** Starts every counter and histogram over */
+    void reset();
+}
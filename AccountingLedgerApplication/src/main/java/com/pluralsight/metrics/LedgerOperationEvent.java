@@ -0,0 +1,31 @@
+package com.pluralsight.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one timed ledger operation, e.g.
+ * {@code java -XX:StartFlightRecording=filename=ledger.jfr ...} and then
+ * {@code jfr print --events com.pluralsight.LedgerOperation ledger.jfr}
+ */
+@Name("com.pluralsight.LedgerOperation")
+@Label("Ledger Operation")
+@Category("Ledger")
+@Description("A load, save, rewrite, balance rebuild, search or delete, with the rows and bytes it touched")
+@StackTrace(false)
+class LedgerOperationEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+}
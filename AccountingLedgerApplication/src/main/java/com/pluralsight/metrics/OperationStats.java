@@ -0,0 +1,44 @@
+package com.pluralsight.metrics;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * Snapshot of one operation's counters and latency percentiles (nanoseconds).
+ * Also the composite type the {@link LedgerMetricsMXBean} shows in JMX clients.
+ */
+public class OperationStats {
+    private final String name;
+    private final long count;
+    private final long rows;
+    private final long bytes;
+    private final long totalNanos;
+    private final long p50Nanos;
+    private final long p95Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+
+    @ConstructorParameters({"name", "count", "rows", "bytes", "totalNanos", "p50Nanos", "p95Nanos", "p99Nanos", "maxNanos"})
+    public OperationStats(String name, long count, long rows, long bytes, long totalNanos,
+                          long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos) {
+        this.name = name;
+        this.count = count;
+        this.rows = rows;
+        this.bytes = bytes;
+        this.totalNanos = totalNanos;
+        this.p50Nanos = p50Nanos;
+        this.p95Nanos = p95Nanos;
+        this.p99Nanos = p99Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public String getName()      { return name; }
+    public long getCount()       { return count; }
+    public long getRows()        { return rows; }
+    public long getBytes()       { return bytes; }
+    public long getTotalNanos()  { return totalNanos; }
+    public long getP50Nanos()    { return p50Nanos; }
+    public long getP95Nanos()    { return p95Nanos; }
+    public long getP99Nanos()    { return p99Nanos; }
+    public long getMaxNanos()    { return maxNanos; }
+    public long getMeanNanos()   { return count == 0 ? 0 : totalNanos / count; }
+}
@@ -0,0 +1,275 @@
+package com.pluralsight.server;
+
+import com.pluralsight.Transaction;
+import com.pluralsight.io.LedgerJson;
+import com.pluralsight.io.LedgerLog;
+import com.pluralsight.store.CategorySummary;
+import com.pluralsight.store.ConcurrentLedgerStore;
+import com.pluralsight.store.LedgerQuery;
+import com.pluralsight.store.LedgerTime;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless HTTP front end for the ledger, one virtual thread per request.
+ * Requests share one {@link ConcurrentLedgerStore}; changes are persisted
+ * through the shared {@link LedgerLog} before the response is sent.
+ *
+ * <pre>
+ * POST   /deposits            description, vendor, category, amount (form or query parameters)
+ * POST   /payments            same; the amount is stored negative
+ * GET    /balance
+ * GET    /categories          every category
+ * GET    /categories/{name}   one category (case-insensitive)
+ * GET    /search              start, end (yyyy-MM-dd), description, vendor, limit (default 100, at most 1000)
+ * DELETE /transactions        date=yyyy-MM-dd or vendor=substring
+ * </pre>
+ *
+ * Responses are JSON; amounts are decimal numbers with two places. There is
+ * no authentication, so {@link #start(int)} listens on the loopback interface
+ * only; other addresses have to be asked for explicitly.
+ */
+public class LedgerServer {
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+
+    private final ConcurrentLedgerStore ledger;
+    private final LedgerLog log;
+    private HttpServer http;
+    private ExecutorService executor;
+
+    public LedgerServer(ConcurrentLedgerStore ledger, LedgerLog log) {
+        this.ledger = ledger;
+        this.log = log;
+    }
+
+    /**
+     * Listens on the loopback interface, so only this machine can reach the ledger
+     */
+    public void start(int port) throws IOException {
+        start(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Listens on bindAddress, e.g. 0.0.0.0 for every interface
+     */
+    public void start(InetAddress bindAddress, int port) throws IOException {
+        http = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+        http.createContext("/deposits", route("POST", ex -> add(ex, false)));
+        http.createContext("/payments", route("POST", ex -> add(ex, true)));
+        http.createContext("/balance", route("GET", this::balance));
+        http.createContext("/categories", route("GET", this::categories));
+        http.createContext("/search", route("GET", this::search));
+        http.createContext("/transactions", route("DELETE", this::delete));
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        http.setExecutor(executor);
+        http.start();
+    }
+
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, lets running ones finish (up to delaySeconds)
+     */
+    public void stop(int delaySeconds) {
+        http.stop(delaySeconds);
+        executor.close();
+    }
+
+    // ---- handlers ----
+
+    private void add(HttpExchange ex, boolean payment) throws IOException {
+        Map<String, String> p = params(ex);
+        String description = textParam(p, "description", "");
+        String vendor = textParam(p, "vendor", "");
+        String category = textParam(p, "category", "Uncategorized");
+        double amount = parseAmount(p.get("amount"));
+        if (!payment && amount <= 0) throw new IllegalArgumentException("A deposit amount must be positive");
+        LocalDateTime now = LocalDateTime.now();
+        Transaction t = new Transaction(now.format(DATE), now.format(TIME),
+                description, vendor, category, payment ? -Math.abs(amount) : amount);
+        // Append and read the new balance under one lock so it belongs to this row
+        long balance = ledger.write(store -> {
+            store.append(t);
+            return store.balanceCents();
+        });
+        t.setBalance(balance / 100.0);
+        log.flush();
+        send(ex, 201, "{\"transaction\":" + json(t) + ",\"balance\":" + LedgerJson.cents(balance) + "}");
+    }
+
+    private void balance(HttpExchange ex) throws IOException {
+        send(ex, 200, "{\"balance\":" + LedgerJson.cents(ledger.balanceCents()) + ",\"rows\":" + ledger.size() + "}");
+    }
+
+    private void categories(HttpExchange ex) throws IOException {
+        String path = ex.getRequestURI().getPath();
+        String name = path.length() > "/categories/".length()
+                ? URLDecoder.decode(path.substring("/categories/".length()), StandardCharsets.UTF_8) : "";
+        if (name.isEmpty()) {
+            StringBuilder sb = new StringBuilder("[");
+            for (CategorySummary c : ledger.categories()) {
+                if (sb.length() > 1) sb.append(',');
+                sb.append(json(c));
+            }
+            send(ex, 200, sb.append(']').toString());
+            return;
+        }
+        CategorySummary c = ledger.category(name);
+        if (c == null) {
+            send(ex, 404, error("No transactions in category " + name));
+        } else {
+            send(ex, 200, json(c));
+        }
+    }
+
+    private void search(HttpExchange ex) throws IOException {
+        Map<String, String> p = params(ex);
+        int limit = p.containsKey("limit") ? Integer.parseInt(p.get("limit")) : DEFAULT_LIMIT;
+        if (limit < 0) throw new IllegalArgumentException("limit must not be negative");
+        limit = Math.min(limit, MAX_LIMIT);
+        LedgerQuery query = new LedgerQuery()
+                .description(p.getOrDefault("description", ""))
+                .vendor(p.getOrDefault("vendor", ""));
+        if (!p.getOrDefault("start", "").isEmpty()) query.from(p.get("start"));
+        if (!p.getOrDefault("end", "").isEmpty()) query.to(p.get("end"));
+        // One row past the limit says whether more match, without copying every match out of the store
+        List<Transaction> found = ledger.query(query.limit(limit + 1)).getRows();
+        StringBuilder sb = new StringBuilder("{\"count\":").append(Math.min(limit, found.size()))
+                .append(",\"more\":").append(found.size() > limit).append(",\"transactions\":[");
+        for (int i = 0; i < Math.min(limit, found.size()); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(json(found.get(i)));
+        }
+        send(ex, 200, sb.append("]}").toString());
+    }
+
+    private void delete(HttpExchange ex) throws IOException {
+        Map<String, String> p = params(ex);
+        int removed;
+        if (p.containsKey("date")) {
+            long day = LedgerTime.parseEpochDay(p.get("date"));
+            removed = ledger.removeBetween(day * LedgerTime.SECONDS_PER_DAY,
+                    (day + 1) * LedgerTime.SECONDS_PER_DAY - 1);
+        } else if (p.containsKey("vendor") && !p.get("vendor").isBlank()) {
+            removed = ledger.removeByVendor(p.get("vendor").toLowerCase());
+        } else {
+            throw new IllegalArgumentException("Give date=yyyy-MM-dd or vendor=substring");
+        }
+        log.flush();
+        send(ex, 200, "{\"removed\":" + removed + ",\"balance\":" + LedgerJson.cents(ledger.balanceCents()) + "}");
+    }
+
+    // ---- plumbing ----
+
+    private interface Handler {
+        void handle(HttpExchange ex) throws IOException;
+    }
+
+    /**
+     * Wraps a handler with the method check and the error-to-status mapping
+     */
+    private static HttpHandler route(String method, Handler handler) {
+        return ex -> {
+            try {
+                if (!ex.getRequestMethod().equalsIgnoreCase(method)) {
+                    ex.getResponseHeaders().set("Allow", method);
+                    send(ex, 405, error("Use " + method));
+                    return;
+                }
+                handler.handle(ex);
+            } catch (IllegalArgumentException e) { // includes NumberFormatException
+                send(ex, 400, error(e.getMessage()));
+            } catch (IOException | RuntimeException e) {
+                send(ex, 500, error(e.toString()));
+            } finally {
+                ex.close();
+            }
+        };
+    }
+
+    private static double parseAmount(String value) {
+        if (value == null) throw new IllegalArgumentException("Missing amount");
+        double amount = Double.parseDouble(value.trim());
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) throw new IllegalArgumentException("Invalid amount");
+        return amount;
+    }
+
+    // A field stored in the ledger file: a '|' or line break would split its row (400)
+    private static String textParam(Map<String, String> p, String name, String fallback) {
+        String value = p.getOrDefault(name, fallback);
+        if (!Transaction.isValidField(value)) throw new IllegalArgumentException(name + " cannot contain '|', CR or LF");
+        return value;
+    }
+
+    /**
+     * Query string plus a form-encoded body, body values winning
+     */
+    private static Map<String, String> params(HttpExchange ex) throws IOException {
+        Map<String, String> out = new HashMap<>();
+        decodeInto(ex.getRequestURI().getRawQuery(), out);
+        byte[] body = ex.getRequestBody().readAllBytes();
+        if (body.length > 0) decodeInto(new String(body, StandardCharsets.UTF_8), out);
+        return out;
+    }
+
+    private static void decodeInto(String form, Map<String, String> out) {
+        if (form == null || form.isEmpty()) return;
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            out.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void send(HttpExchange ex, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String json(Transaction t) {
+        return "{\"date\":" + LedgerJson.string(t.getDate())
+                + ",\"time\":" + LedgerJson.string(t.getTime())
+                + ",\"description\":" + LedgerJson.string(t.getDescription())
+                + ",\"vendor\":" + LedgerJson.string(t.getVendor())
+                + ",\"category\":" + LedgerJson.string(t.getCategory())
+                + ",\"amount\":" + LedgerJson.cents(t.getAmountCents())
+                + ",\"balance\":" + LedgerJson.cents(Math.round(t.getBalance() * 100)) + "}";
+    }
+
+    private static String json(CategorySummary c) {
+        return "{\"category\":" + LedgerJson.string(c.getName())
+                + ",\"deposits\":" + LedgerJson.cents(c.getDepositsCents())
+                + ",\"payments\":" + LedgerJson.cents(c.getPaymentsCents()) + ",\"count\":" + c.getCount()
+                + ",\"min\":" + LedgerJson.cents(c.getMinCents())
+                + ",\"max\":" + LedgerJson.cents(c.getMaxCents()) + "}";
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + LedgerJson.string(message == null ? "error" : message) + "}";
+    }
+}
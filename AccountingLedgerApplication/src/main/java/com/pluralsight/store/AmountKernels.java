@@ -0,0 +1,85 @@
+package com.pluralsight.store;
+
+import java.util.Arrays;
+
+/**
+ * One-pass aggregation over primitive cents arrays (amount or balance
+ * columns): positive sum, negative sum, min, max and count together.
+ *
+ * Uses the incubating Vector API when jdk.incubator.vector is on the module
+ * path ({@code --add-modules jdk.incubator.vector}) and a plain loop
+ * otherwise; {@code -Dledger.vector=false} forces the loop. Both paths give
+ * identical results, which {@link #check(long[])} verifies.
+ */
+public final class AmountKernels {
+    private static final boolean VECTORIZED = vectorSupported();
+
+    private AmountKernels() {
+    }
+
+    /** True if {@link #stats} runs on the Vector API */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /** Description of the active implementation, e.g. "vector (4 lanes)" */
+    public static String describe() {
+        return VECTORIZED ? "vector (" + VectorKernels.laneCount() + " lanes)" : "scalar";
+    }
+
+    public static AmountStats stats(long[] values) {
+        return stats(values, 0, values.length);
+    }
+
+    /**
+     * Aggregates values[from, to)
+     */
+    public static AmountStats stats(long[] values, int from, int to) {
+        return VECTORIZED ? VectorKernels.stats(values, from, to) : scalarStats(values, from, to);
+    }
+
+    /**
+     * Reference loop, also the fallback
+     */
+    public static AmountStats scalarStats(long[] values, int from, int to) {
+        long p = 0, n = 0, lo = Long.MAX_VALUE, hi = Long.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            long v = values[i];
+            if (v > 0) p += v; else n += v;
+            if (v < lo) lo = v;
+            if (v > hi) hi = v;
+        }
+        return new AmountStats(p, n, lo, hi, to - from);
+    }
+
+    /**
+     * Compares the active kernel and the scalar loop with the stream pipelines
+     * the app used before; throws IllegalStateException on any difference
+     */
+    public static void check(long[] values) {
+        AmountStats expected = new AmountStats(
+                Arrays.stream(values).filter(v -> v > 0).sum(),
+                Arrays.stream(values).filter(v -> v < 0).sum(),
+                Arrays.stream(values).min().orElse(0),
+                Arrays.stream(values).max().orElse(0),
+                values.length);
+        AmountStats scalar = scalarStats(values, 0, values.length);
+        AmountStats active = stats(values);
+        if (!expected.equals(scalar) || !expected.equals(active)) {
+            throw new IllegalStateException("Kernel mismatch: streams " + expected
+                    + ", scalar " + scalar + ", " + describe() + " " + active);
+        }
+    }
+
+    private static boolean vectorSupported() {
+        if (!Boolean.parseBoolean(System.getProperty("ledger.vector", "true"))) return false;
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return false;
+        try {
+            // Links the Vector API classes and sanity-checks the tail handling
+            long[] probe = {3, -1, 4, -1, 5, -9, 2, 6, -5, 3, 5};
+            return VectorKernels.stats(probe, 0, probe.length).equals(scalarStats(probe, 0, probe.length));
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.pluralsight.store;
+
+/**
+ * Sum of the positive values, sum of the negative values, min, max and count
+ * of a run of cents, as produced in one pass by {@link AmountKernels}.
+ * Min and max are 0 when the run is empty.
+ */
+public class AmountStats {
+    private final long positiveCents;
+    private final long negativeCents;
+    private final long minCents;
+    private final long maxCents;
+    private final int count;
+
+    public AmountStats(long positiveCents, long negativeCents, long minCents, long maxCents, int count) {
+        this.positiveCents = positiveCents;
+        this.negativeCents = negativeCents;
+        this.minCents = count == 0 ? 0 : minCents;
+        this.maxCents = count == 0 ? 0 : maxCents;
+        this.count = count;
+    }
+
+    public long getPositiveCents()   { return positiveCents; }
+    public long getNegativeCents()   { return negativeCents; }
+    public long getNetCents()        { return positiveCents + negativeCents; }
+    public long getMinCents()        { return minCents; }
+    public long getMaxCents()        { return maxCents; }
+    public int getCount()            { return count; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof AmountStats)) return false;
+        AmountStats s = (AmountStats) o;
+        return positiveCents == s.positiveCents && negativeCents == s.negativeCents
+                && minCents == s.minCents && maxCents == s.maxCents && count == s.count;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(positiveCents) * 31 + Long.hashCode(negativeCents) * 17 + count;
+    }
+
+    @Override
+    public String toString() {
+        return "AmountStats[+" + positiveCents + ", " + negativeCents + ", min " + minCents
+                + ", max " + maxCents + ", n " + count + "]";
+    }
+}
@@ -0,0 +1,159 @@
+package com.pluralsight.store;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Fenwick (binary indexed) tree over the amounts of every slot of a
+ * {@link ColumnarLedgerStore}, plus a second tree counting live slots.
+ *
+ * <ul>
+ *   <li>append: amortised O(1) - a new node only sums its own children, and
+ *       on average a node has one child</li>
+ *   <li>delete (amount set to 0): O(log n)</li>
+ *   <li>bulk delete of k slots: O(min(k log n, n - first deleted slot))</li>
+ *   <li>balance at a slot, row-to-slot mapping: O(log n)</li>
+ * </ul>
+ */
+class BalanceIndex {
+    // 1-based Fenwick arrays; tree[i] covers slots (i - lowbit(i), i]
+    private long[] sums = new long[1025];
+    private int[] counts = new int[1025];
+    private int slots;
+    private long total;
+
+    int slots()  { return slots; }
+    long total() { return total; }
+
+    /**
+     * Adds a live slot with the given amount at the end
+     */
+    void append(long amount) {
+        int i = ++slots;
+        if (i == sums.length) {
+            sums = Arrays.copyOf(sums, sums.length * 2);
+            counts = Arrays.copyOf(counts, counts.length * 2);
+        }
+        long s = amount;
+        int c = 1;
+        // Node i covers its own slot plus the nodes i-1, i-2, i-4, ... below lowbit(i)
+        for (int step = 1; step < (i & -i); step <<= 1) {
+            s += sums[i - step];
+            c += counts[i - step];
+        }
+        sums[i] = s;
+        counts[i] = c;
+        total += amount;
+    }
+
+    /**
+     * Takes a slot out of the live set; its amount must be passed so it can be subtracted
+     */
+    void delete(int slot, long amount) {
+        for (int i = slot + 1; i <= slots; i += i & -i) {
+            sums[i] -= amount;
+            counts[i]--;
+        }
+        total -= amount;
+    }
+
+    /**
+     * Takes every marked slot out of the live set. A few slots are deleted one
+     * by one; otherwise one sweep from the first marked slot fixes the trees in
+     * place, each node passing its own change plus its children's on to its
+     * parent, so nothing before the first deletion is touched.
+     */
+    void deleteAll(BitSet marked, long[] amounts) {
+        int first = marked.nextSetBit(0);
+        if (first < 0 || first >= slots) return;
+        int k = marked.cardinality();
+        int depth = 32 - Integer.numberOfLeadingZeros(slots);
+        if ((long) k * depth < slots - first) {
+            for (int slot = first; slot >= 0 && slot < slots; slot = marked.nextSetBit(slot + 1)) {
+                delete(slot, amounts[slot]);
+            }
+            return;
+        }
+        int base = first + 1; // 1-based node of the first marked slot
+        long[] sumDelta = new long[slots - first];
+        int[] countDelta = new int[slots - first];
+        for (int i = base; i <= slots; i++) {
+            int at = i - base;
+            if (marked.get(i - 1)) {
+                sumDelta[at] -= amounts[i - 1];
+                countDelta[at]--;
+                total -= amounts[i - 1];
+            }
+            if (countDelta[at] == 0) continue; // nothing deleted under this node
+            sums[i] += sumDelta[at];
+            counts[i] += countDelta[at];
+            int parent = i + (i & -i);
+            if (parent <= slots) {
+                sumDelta[parent - base] += sumDelta[at];
+                countDelta[parent - base] += countDelta[at];
+            }
+        }
+    }
+
+    /**
+     * Sum of amounts of slots [0, slot]
+     */
+    long prefix(int slot) {
+        long s = 0;
+        for (int i = slot + 1; i > 0; i -= i & -i) s += sums[i];
+        return s;
+    }
+
+    /**
+     * Number of live slots in [0, slot]
+     */
+    int liveUpTo(int slot) {
+        int c = 0;
+        for (int i = slot + 1; i > 0; i -= i & -i) c += counts[i];
+        return c;
+    }
+
+    /**
+     * Slot holding the row-th live row (0-based), found by binary lifting
+     */
+    int slotOfRow(int row) {
+        int pos = 0;
+        int remaining = row + 1;
+        for (int step = Integer.highestOneBit(Math.max(slots, 1)); step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next <= slots && counts[next] < remaining) {
+                pos = next;
+                remaining -= counts[next];
+            }
+        }
+        return pos; // 1-based pos + 1 is the answer, i.e. 0-based slot pos
+    }
+
+    /**
+     * Rebuilds both trees in O(n) from raw slot amounts and the deleted-slot set
+     */
+    void rebuild(long[] amounts, BitSet deleted, int slotCount) {
+        slots = slotCount;
+        if (sums.length <= slotCount) {
+            int cap = Integer.highestOneBit(slotCount) * 2 + 1;
+            sums = new long[cap];
+            counts = new int[cap];
+        } else {
+            Arrays.fill(sums, 0);
+            Arrays.fill(counts, 0);
+        }
+        total = 0;
+        for (int i = 1; i <= slotCount; i++) {
+            boolean live = !deleted.get(i - 1);
+            long amount = live ? amounts[i - 1] : 0;
+            sums[i] += amount;
+            counts[i] += live ? 1 : 0;
+            total += amount;
+            int parent = i + (i & -i);
+            if (parent <= slotCount) {
+                sums[parent] += sums[i];
+                counts[parent] += counts[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.pluralsight.store;
+
+/**
+ * Balances around a time range: the balance just before it starts, the balance
+ * at its end and the rows timestamped within it. All amounts are cents.
+ */
+public class BalanceRange {
+    private final long openingCents;
+    private final long closingCents;
+    private final int count;
+
+    public BalanceRange(long openingCents, long closingCents, int count) {
+        this.openingCents = openingCents;
+        this.closingCents = closingCents;
+        this.count = count;
+    }
+
+    public long getOpeningCents() { return openingCents; }
+    public long getClosingCents() { return closingCents; }
+    public long getNetCents()     { return closingCents - openingCents; }
+    public int getCount()         { return count; }
+}
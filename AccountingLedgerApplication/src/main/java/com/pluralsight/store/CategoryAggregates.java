@@ -0,0 +1,85 @@
+package com.pluralsight.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-category deposits, payments, count, min and max, kept current as rows
+ * are appended and removed so category queries never rescan the ledger.
+ *
+ * Categories are grouped case-insensitively. Each category dictionary id is
+ * resolved to its group once, so an update is an array lookup plus a few
+ * additions. Removing the current min or max cannot be undone in O(1); the
+ * group is flagged and its extremes are recomputed the next time it is read.
+ */
+class CategoryAggregates {
+    static class Group {
+        final String name;
+        long deposits;
+        long payments;
+        int count;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        boolean extremesStale;
+
+        Group(String name) {
+            this.name = name;
+        }
+    }
+
+    private final Map<String, Group> byKey = new HashMap<>();
+    private Group[] byCategoryId = new Group[64];
+
+    void add(int categoryId, String category, long amount) {
+        Group g = group(categoryId, category);
+        if (amount > 0) g.deposits += amount; else g.payments += amount;
+        g.count++;
+        if (amount < g.min) g.min = amount;
+        if (amount > g.max) g.max = amount;
+    }
+
+    void remove(int categoryId, String category, long amount) {
+        Group g = group(categoryId, category);
+        if (amount > 0) g.deposits -= amount; else g.payments -= amount;
+        g.count--;
+        if (amount == g.min || amount == g.max) g.extremesStale = true;
+    }
+
+    /**
+     * Group for a case-insensitive category name, or null if it has never been seen
+     */
+    Group find(String category) {
+        return byKey.get(category.toLowerCase());
+    }
+
+    /**
+     * Group a category dictionary id belongs to (null if no row used it yet)
+     */
+    Group groupOf(int categoryId) {
+        return categoryId < byCategoryId.length ? byCategoryId[categoryId] : null;
+    }
+
+    List<Group> groups() {
+        return new ArrayList<>(byKey.values());
+    }
+
+    void clear() {
+        byKey.clear();
+        Arrays.fill(byCategoryId, null);
+    }
+
+    private Group group(int categoryId, String category) {
+        if (categoryId >= byCategoryId.length) {
+            byCategoryId = Arrays.copyOf(byCategoryId, Math.max(categoryId + 1, byCategoryId.length * 2));
+        }
+        Group g = byCategoryId[categoryId];
+        if (g == null) {
+            g = byKey.computeIfAbsent(category.toLowerCase(), k -> new Group(category));
+            byCategoryId[categoryId] = g;
+        }
+        return g;
+    }
+}
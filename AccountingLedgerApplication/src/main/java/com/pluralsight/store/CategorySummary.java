@@ -0,0 +1,31 @@
+package com.pluralsight.store;
+
+/**
+ * Totals for one category (compared case-insensitively). All amounts are cents;
+ * payments are negative.
+ */
+public class CategorySummary {
+    private final String name;
+    private final long depositsCents;
+    private final long paymentsCents;
+    private final int count;
+    private final long minCents;
+    private final long maxCents;
+
+    public CategorySummary(String name, long depositsCents, long paymentsCents,
+                           int count, long minCents, long maxCents) {
+        this.name = name;
+        this.depositsCents = depositsCents;
+        this.paymentsCents = paymentsCents;
+        this.count = count;
+        this.minCents = minCents;
+        this.maxCents = maxCents;
+    }
+
+    public String getName()          { return name; }
+    public long getDepositsCents()   { return depositsCents; }
+    public long getPaymentsCents()   { return paymentsCents; }
+    public int getCount()            { return count; }
+    public long getMinCents()        { return minCents; }
+    public long getMaxCents()        { return maxCents; }
+}
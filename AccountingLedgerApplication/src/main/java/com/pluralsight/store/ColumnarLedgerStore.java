@@ -0,0 +1,737 @@
+package com.pluralsight.store;
+
+import com.pluralsight.Transaction;
+import com.pluralsight.metrics.LedgerMetrics;
+import com.pluralsight.metrics.LedgerMetrics.Operation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Column-oriented {@link LedgerStore}: one primitive array per field instead of
+ * one object per transaction. Text fields are dictionary-encoded, so a row
+ * costs a few longs/ints no matter how often a vendor or category repeats.
+ *
+ * Rows live in append-only physical slots. Removing a row only marks its slot
+ * deleted and takes its amount out of the {@link BalanceIndex}; the columns are
+ * compacted once dead slots outnumber live ones. Running balances are never
+ * stored: they are prefix sums read from the index when asked for. A
+ * {@link DateIndex} keeps the slots in time order for range queries and two
+ * {@link TrigramIndex}es serve description/vendor substring searches.
+ * {@link CategoryAggregates} keep per-category totals current.
+ */
+public class ColumnarLedgerStore implements LedgerStore {
+    private static final int INITIAL_CAPACITY = 1024;
+    // Compact once at least this many slots are dead and they outnumber live rows
+    private static final int MIN_COMPACT_SLOTS = 1024;
+
+    // epoch seconds of date + time
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private int[] descriptions = new int[INITIAL_CAPACITY];
+    private int[] vendors = new int[INITIAL_CAPACITY];
+    private int[] categories = new int[INITIAL_CAPACITY];
+    private int slotCount;
+
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private final BalanceIndex balances = new BalanceIndex();
+    private final DateIndex dates = new DateIndex();
+    // Running totals in date order, only built for ledgers with out-of-order rows; null when stale
+    private volatile DateTotals dateTotals;
+    private final TrigramIndex descriptionGrams = new TrigramIndex();
+    private final TrigramIndex vendorGrams = new TrigramIndex();
+    private final CategoryAggregates categoryTotals = new CategoryAggregates();
+    private final List<LedgerListener> listeners = new ArrayList<>();
+
+    // Last row -> slot lookup, so sequential scans by row cost O(1) per step.
+    // Row and slot are packed into one long read/written with opaque access, so
+    // concurrent readers (ConcurrentLedgerStore) can never see a torn pair.
+    private static final long NO_CURSOR = -1L; // row -1, slot -1
+    private static final VarHandle CURSOR;
+    private long cursor = NO_CURSOR;
+
+    static {
+        try {
+            CURSOR = MethodHandles.lookup().findVarHandle(ColumnarLedgerStore.class, "cursor", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final StringDictionary descriptionDict = new StringDictionary();
+    private final StringDictionary vendorDict = new StringDictionary();
+    private final StringDictionary categoryDict = new StringDictionary();
+
+    @Override
+    public int size() {
+        return slotCount - deletedCount;
+    }
+
+    @Override
+    public int slotCount() {
+        return slotCount;
+    }
+
+    @Override
+    public void addListener(LedgerListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public Transaction get(int row) {
+        return new SlotView(slotOf(row));
+    }
+
+    @Override
+    public List<Transaction> newestFirst() {
+        return new AbstractList<>() {
+            @Override
+            public Transaction get(int index) {
+                return ColumnarLedgerStore.this.get(ColumnarLedgerStore.this.size() - 1 - index);
+            }
+
+            @Override
+            public int size() {
+                return ColumnarLedgerStore.this.size();
+            }
+        };
+    }
+
+    @Override
+    public List<Transaction> select(IntPredicate rowFilter) {
+        List<Transaction> out = new ArrayList<>();
+        int row = size();
+        for (int slot = slotCount - 1; slot >= 0; slot--) {
+            if (deleted.get(slot)) continue;
+            row--;
+            if (rowFilter.test(row)) out.add(new SlotView(slot));
+        }
+        return out;
+    }
+
+    @Override
+    public void append(Transaction t) {
+        long ts = LedgerTime.toEpochSecond(t.getDate(), t.getTime());
+        appendSlot(ts, t.getAmountCents(),
+                descriptionDict.encode(t.getDescription()),
+                vendorDict.encode(t.getVendor()),
+                categoryDict.encode(t.getCategory()));
+    }
+
+    @Override
+    public void appendAll(RowBatch batch) {
+        ensureCapacity(slotCount + batch.size);
+        for (int i = 0; i < batch.size; i++) {
+            appendSlot(batch.timestamps[i], batch.amounts[i],
+                    descriptionDict.encode(batch.descriptions[i]),
+                    vendorDict.encode(batch.vendors[i]),
+                    categoryDict.encode(batch.categories[i]));
+        }
+    }
+
+    private void appendSlot(long ts, long amount, int desc, int vendor, int category) {
+        ensureCapacity(slotCount + 1);
+        timestamps[slotCount] = ts;
+        amounts[slotCount] = amount;
+        descriptions[slotCount] = desc;
+        vendors[slotCount] = vendor;
+        categories[slotCount] = category;
+        dates.add(ts, slotCount);
+        dateTotals = null;
+        descriptionGrams.add(slotCount, desc, descriptionDict.lower(desc));
+        vendorGrams.add(slotCount, vendor, vendorDict.lower(vendor));
+        categoryTotals.add(category, categoryDict.decode(category), amount);
+        slotCount++;
+        balances.append(amount);
+        for (LedgerListener l : listeners) l.rowAppended(slotCount - 1, new SlotView(slotCount - 1));
+    }
+
+    @Override
+    public Transaction remove(int row) {
+        try (LedgerMetrics.Timer t = LedgerMetrics.time(Operation.DELETE)) {
+            int slot = slotOf(row);
+            Transaction removed = detach(slot);
+            deleteSlot(slot);
+            maybeCompact();
+            maybePruneGrams();
+            t.rows(1);
+            return removed;
+        }
+    }
+
+    @Override
+    public int removeIf(IntPredicate rowFilter) {
+        // Mark first, then apply, so the filter sees a stable row numbering
+        BitSet marked = new BitSet(slotCount);
+        int row = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (deleted.get(slot)) continue;
+            if (rowFilter.test(row++)) marked.set(slot);
+        }
+        return removeMarked(marked);
+    }
+
+    @Override
+    public int removeBetween(long fromEpochSecond, long toEpochSecond) {
+        BitSet marked = new BitSet(slotCount);
+        int hi = dates.upperBound(toEpochSecond);
+        for (int pos = dates.lowerBound(fromEpochSecond); pos < hi; pos++) {
+            int slot = dates.slotAt(pos);
+            if (!deleted.get(slot)) marked.set(slot);
+        }
+        return removeMarked(marked);
+    }
+
+    @Override
+    public int removeSlots(BitSet slots) {
+        BitSet marked = (BitSet) slots.clone();
+        if (marked.length() > slotCount) marked.clear(slotCount, marked.length());
+        marked.andNot(deleted);
+        return removeMarked(marked);
+    }
+
+    /**
+     * Removes the live slots set in marked: the balance index is fixed up in one
+     * sweep from the first marked slot, then category totals and listeners in
+     * one pass over the marked bits
+     */
+    private int removeMarked(BitSet marked) {
+        int removed = marked.cardinality();
+        if (removed == 0) return 0;
+        try (LedgerMetrics.Timer t = LedgerMetrics.time(Operation.DELETE)) {
+            deleted.or(marked);
+            deletedCount += removed;
+            resetCursor();
+            dateTotals = null;
+            balances.deleteAll(marked, amounts);
+            for (int slot = marked.nextSetBit(0); slot >= 0; slot = marked.nextSetBit(slot + 1)) {
+                categoryTotals.remove(categories[slot], categoryDict.decode(categories[slot]), amounts[slot]);
+                descriptionGrams.removed(descriptions[slot]);
+                vendorGrams.removed(vendors[slot]);
+                for (LedgerListener l : listeners) l.rowRemoved(slot);
+            }
+            maybeCompact();
+            maybePruneGrams();
+            t.rows(removed);
+        }
+        return removed;
+    }
+
+
+    private void deleteSlot(int slot) {
+        deleted.set(slot);
+        deletedCount++;
+        resetCursor();
+        dateTotals = null;
+        balances.delete(slot, amounts[slot]);
+        categoryTotals.remove(categories[slot], categoryDict.decode(categories[slot]), amounts[slot]);
+        descriptionGrams.removed(descriptions[slot]);
+        vendorGrams.removed(vendors[slot]);
+        for (LedgerListener l : listeners) l.rowRemoved(slot);
+    }
+
+    @Override
+    public void clear() {
+        slotCount = 0;
+        deleted.clear();
+        deletedCount = 0;
+        resetCursor();
+        balances.rebuild(amounts, deleted, 0);
+        dates.clear();
+        dateTotals = null;
+        descriptionGrams.clear();
+        vendorGrams.clear();
+        categoryTotals.clear();
+        descriptionDict.clear();
+        vendorDict.clear();
+        categoryDict.clear();
+    }
+
+    @Override
+    public void recalculateBalances() {
+        try (LedgerMetrics.Timer t = LedgerMetrics.time(Operation.REBUILD)) {
+            balances.rebuild(amounts, deleted, slotCount);
+            t.rows(size());
+        }
+    }
+
+    // ---- column access ----
+
+    @Override
+    public long amountCents(int row) {
+        return amounts[slotOf(row)];
+    }
+
+    // ---- aggregates ----
+
+    @Override
+    public long balanceCents() {
+        return balances.total();
+    }
+
+    @Override
+    public AmountStats amountStats() {
+        AmountStats all = AmountKernels.stats(amounts, 0, slotCount);
+        if (deletedCount == 0) return all;
+        // Take the (few) deleted slots back out; only a deleted extreme needs a second pass
+        long p = all.getPositiveCents(), n = all.getNegativeCents();
+        boolean extremeDeleted = false;
+        for (int slot = deleted.nextSetBit(0); slot >= 0 && slot < slotCount; slot = deleted.nextSetBit(slot + 1)) {
+            long v = amounts[slot];
+            if (v > 0) p -= v; else n -= v;
+            extremeDeleted |= v == all.getMinCents() || v == all.getMaxCents();
+        }
+        long lo = all.getMinCents(), hi = all.getMaxCents();
+        if (extremeDeleted) {
+            lo = Long.MAX_VALUE;
+            hi = Long.MIN_VALUE;
+            for (int slot = deleted.nextClearBit(0); slot < slotCount; slot = deleted.nextClearBit(slot + 1)) {
+                lo = Math.min(lo, amounts[slot]);
+                hi = Math.max(hi, amounts[slot]);
+            }
+        }
+        return new AmountStats(p, n, lo, hi, size());
+    }
+
+    @Override
+    public long[] balancesCents() {
+        long[] out = new long[size()];
+        long running = 0;
+        int row = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (deletedCount > 0 && deleted.get(slot)) continue;
+            running += amounts[slot];
+            out[row++] = running;
+        }
+        return out;
+    }
+
+    @Override
+    public long balanceAsOfCents(long epochSecond) {
+        return sumBefore(dates.upperBound(epochSecond));
+    }
+
+    @Override
+    public BalanceRange balanceBetween(long fromEpochSecond, long toEpochSecond) {
+        int from = dates.lowerBound(fromEpochSecond);
+        int to = Math.max(from, dates.upperBound(toEpochSecond));
+        return new BalanceRange(sumBefore(from), sumBefore(to), countBefore(to) - countBefore(from));
+    }
+
+    // Sum of the live rows at date index positions [0, pos)
+    private long sumBefore(int pos) {
+        if (pos == 0) return 0;
+        if (dates.isSlotOrdered()) return balances.prefix(dates.slotAt(pos - 1));
+        return dateTotals().sums()[pos];
+    }
+
+    // Number of live rows at date index positions [0, pos)
+    private int countBefore(int pos) {
+        if (pos == 0) return 0;
+        if (dates.isSlotOrdered()) return balances.liveUpTo(dates.slotAt(pos - 1));
+        return dateTotals().counts()[pos];
+    }
+
+    // One pass over the date index; rebuilt on the first query after a change
+    private DateTotals dateTotals() {
+        DateTotals t = dateTotals;
+        if (t != null) return t;
+        int n = dates.size();
+        long[] sums = new long[n + 1];
+        int[] counts = new int[n + 1];
+        for (int pos = 0; pos < n; pos++) {
+            int slot = dates.slotAt(pos);
+            boolean live = !deleted.get(slot);
+            sums[pos + 1] = sums[pos] + (live ? amounts[slot] : 0);
+            counts[pos + 1] = counts[pos] + (live ? 1 : 0);
+        }
+        t = new DateTotals(sums, counts);
+        dateTotals = t;
+        return t;
+    }
+
+    private record DateTotals(long[] sums, int[] counts) {
+    }
+
+    @Override
+    public CategorySummary category(String category) {
+        CategoryAggregates.Group g = categoryTotals.find(category);
+        return g == null || g.count == 0 ? null : summarize(g);
+    }
+
+    @Override
+    public List<CategorySummary> categories() {
+        List<CategorySummary> out = new ArrayList<>();
+        for (CategoryAggregates.Group g : categoryTotals.groups()) {
+            if (g.count > 0) out.add(summarize(g));
+        }
+        return out;
+    }
+
+    private CategorySummary summarize(CategoryAggregates.Group g) {
+        if (g.extremesStale) {
+            // A removed row held the min or max: rescan just this category once
+            long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (deleted.get(slot) || categoryTotals.groupOf(categories[slot]) != g) continue;
+                min = Math.min(min, amounts[slot]);
+                max = Math.max(max, amounts[slot]);
+            }
+            g.min = min;
+            g.max = max;
+            g.extremesStale = false;
+        }
+        return new CategorySummary(g.name, g.deposits, g.payments, g.count, g.min, g.max);
+    }
+
+    @Override
+    public IntPredicate vendorContains(String lowerSubstring) {
+        TextMatcher m = new TextMatcher(vendorDict, lowerSubstring);
+        return row -> m.test(vendors[slotOf(row)]);
+    }
+
+    @Override
+    public IntPredicate descriptionContains(String lowerSubstring) {
+        TextMatcher m = new TextMatcher(descriptionDict, lowerSubstring);
+        return row -> m.test(descriptions[slotOf(row)]);
+    }
+
+    @Override
+    public int removeByVendor(String lowerSubstring) {
+        TextMatcher m = new TextMatcher(vendorDict, lowerSubstring);
+        BitSet marked = new BitSet(slotCount);
+        if (lowerSubstring.length() >= 3) {
+            for (int slot : vendorGrams.candidates(lowerSubstring)) {
+                if (!deleted.get(slot) && m.test(vendors[slot])) marked.set(slot);
+            }
+        } else {
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (!deleted.get(slot) && m.test(vendors[slot])) marked.set(slot);
+            }
+        }
+        return removeMarked(marked);
+    }
+
+    @Override
+    public List<Transaction> search(String startDate, String endDate, String descContains, String vendorContains) {
+        try (LedgerMetrics.Timer t = LedgerMetrics.time(Operation.SEARCH)) {
+            List<Transaction> out = new ArrayList<>();
+            forEachMatch(startDate, endDate, descContains, vendorContains, slot -> out.add(new SlotView(slot)));
+            t.rows(out.size());
+            return out;
+        }
+    }
+
+    @Override
+    public int removeMatching(String startDate, String endDate, String descContains, String vendorContains) {
+        BitSet marked = new BitSet(slotCount);
+        forEachMatch(startDate, endDate, descContains, vendorContains, marked::set);
+        return removeMarked(marked);
+    }
+
+    @Override
+    public QueryResult query(LedgerQuery q) {
+        try (LedgerMetrics.Timer t = LedgerMetrics.time(Operation.SEARCH)) {
+            QueryResult result = runQuery(q);
+            t.rows(result.getRows().size());
+            return result;
+        }
+    }
+
+    private QueryResult runQuery(LedgerQuery q) {
+        CompiledQuery filter = new CompiledQuery(q);
+        if (filter.noRows) return new QueryResult(new ArrayList<>(), "category totals", 0);
+
+        // Drive the query from the smallest slice: the date range or a trigram candidate list
+        int lo = q.isDated() ? dates.lowerBound(q.getFromEpochSecond()) : 0;
+        int hi = q.isDated() ? Math.max(lo, dates.upperBound(q.getToEpochSecond())) : dates.size();
+        String index = q.isDated() ? "date index" : "full scan";
+        int[] candidates = null;
+        if (q.getDescription().length() >= 3) {
+            int[] byDescription = descriptionGrams.candidates(q.getDescription());
+            if (byDescription.length < hi - lo) {
+                candidates = byDescription;
+                index = "description trigrams";
+            }
+        }
+        if (q.getVendor().length() >= 3) {
+            int[] byVendor = vendorGrams.candidates(q.getVendor());
+            if (byVendor.length < (candidates == null ? hi - lo : candidates.length)) {
+                candidates = byVendor;
+                index = "vendor trigrams";
+            }
+        }
+
+        int limit = q.getLimit() < 0 ? Integer.MAX_VALUE : q.getLimit();
+        List<Transaction> out = new ArrayList<>();
+        int examined = 0;
+        if (candidates == null && q.getSort() == LedgerQuery.Sort.DATE) {
+            // The date index is already in the requested order, so stop as soon as the limit is reached
+            int step = q.isDescending() ? -1 : 1;
+            for (int pos = q.isDescending() ? hi - 1 : lo; pos >= lo && pos < hi && out.size() < limit; pos += step) {
+                examined++;
+                int slot = dates.slotAt(pos);
+                if (filter.test(slot)) out.add(new SlotView(slot));
+            }
+        } else {
+            // Any other order: keep the best `limit` matches in a bounded heap
+            TopSlots top = new TopSlots(Math.min(limit, candidates == null ? hi - lo : candidates.length), q.isDescending());
+            if (candidates != null) {
+                for (int slot : candidates) {
+                    if (filter.test(slot)) top.offer(slot, filter.key(slot));
+                }
+                examined = candidates.length;
+            } else {
+                for (int pos = lo; pos < hi; pos++) {
+                    int slot = dates.slotAt(pos);
+                    if (filter.test(slot)) top.offer(slot, filter.key(slot));
+                }
+                examined = hi - lo;
+            }
+            for (int slot : top.drain()) out.add(new SlotView(slot));
+        }
+        return new QueryResult(out, index, examined);
+    }
+
+    /**
+     * Every criterion of a query fused into one test per slot, cheapest checks first
+     */
+    private final class CompiledQuery {
+        final long from, to, min, max;
+        final LedgerQuery.Sort sort;
+        final TextMatcher description, vendor;
+        final CategoryAggregates.Group category;
+        final boolean noRows;
+
+        CompiledQuery(LedgerQuery q) {
+            from = q.getFromEpochSecond();
+            to = q.getToEpochSecond();
+            min = q.getMinCents();
+            max = q.getMaxCents();
+            sort = q.getSort();
+            description = q.getDescription().isEmpty() ? null : new TextMatcher(descriptionDict, q.getDescription());
+            vendor = q.getVendor().isEmpty() ? null : new TextMatcher(vendorDict, q.getVendor());
+            // Categories are grouped ignoring case, so a row matches when its category id maps to this group
+            category = q.getCategory().isEmpty() ? null : categoryTotals.find(q.getCategory());
+            noRows = !q.getCategory().isEmpty() && (category == null || category.count == 0);
+        }
+
+        boolean test(int slot) {
+            if (deleted.get(slot)) return false;
+            long ts = timestamps[slot];
+            long amount = amounts[slot];
+            return ts >= from && ts <= to && amount >= min && amount <= max
+                    && (category == null || categoryTotals.groupOf(categories[slot]) == category)
+                    && (vendor == null || vendor.test(vendors[slot]))
+                    && (description == null || description.test(descriptions[slot]));
+        }
+
+        long key(int slot) {
+            switch (sort) {
+                case AMOUNT: return amounts[slot];
+                case SIZE:   return Math.abs(amounts[slot]);
+                default:     return timestamps[slot];
+            }
+        }
+    }
+
+    /**
+     * Passes the live slots matching the search criteria to action, newest first
+     */
+    private void forEachMatch(String startDate, String endDate, String descContains, String vendorContains,
+                              IntConsumer action) {
+        boolean dated = !startDate.isEmpty() || !endDate.isEmpty();
+        long from = startDate.isEmpty() ? Long.MIN_VALUE : LedgerTime.parseEpochDay(startDate) * LedgerTime.SECONDS_PER_DAY;
+        long to = endDate.isEmpty() ? Long.MAX_VALUE : (LedgerTime.parseEpochDay(endDate) + 1) * LedgerTime.SECONDS_PER_DAY - 1;
+        String desc = descContains.toLowerCase();
+        String ven = vendorContains.toLowerCase();
+        TextMatcher descMatch = desc.isEmpty() ? null : new TextMatcher(descriptionDict, desc);
+        TextMatcher venMatch = ven.isEmpty() ? null : new TextMatcher(vendorDict, ven);
+
+        // Trigram candidates for text filters of 3+ chars; shorter ones fall back to scanning
+        int[] candidates = null;
+        if (desc.length() >= 3) candidates = descriptionGrams.candidates(desc);
+        if (ven.length() >= 3) {
+            int[] byVendor = vendorGrams.candidates(ven);
+            if (candidates == null || byVendor.length < candidates.length) candidates = byVendor;
+        }
+        int lo = dated ? dates.lowerBound(from) : 0;
+        int hi = dated ? dates.upperBound(to) : slotCount;
+
+        if (candidates != null && candidates.length <= hi - lo) {
+            // Text index is the smaller slice: check the date on each candidate
+            for (int i = candidates.length - 1; i >= 0; i--) {
+                int slot = candidates[i];
+                if (timestamps[slot] >= from && timestamps[slot] <= to && matches(slot, descMatch, venMatch)) {
+                    action.accept(slot);
+                }
+            }
+        } else if (dated) {
+            // Binary search the date range, then test the other filters on that slice only (newest first)
+            for (int pos = hi - 1; pos >= lo; pos--) {
+                int slot = dates.slotAt(pos);
+                if (matches(slot, descMatch, venMatch)) action.accept(slot);
+            }
+        } else {
+            for (int slot = slotCount - 1; slot >= 0; slot--) {
+                if (matches(slot, descMatch, venMatch)) action.accept(slot);
+            }
+        }
+    }
+
+    private boolean matches(int slot, TextMatcher desc, TextMatcher ven) {
+        return !deleted.get(slot)
+                && (desc == null || desc.test(descriptions[slot]))
+                && (ven == null || ven.test(vendors[slot]));
+    }
+
+    // ---- slots ----
+
+    /**
+     * Maps a live row number to its physical slot
+     */
+    private int slotOf(int row) {
+        if (row < 0 || row >= size()) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of range [0, " + size() + ")");
+        }
+        if (deletedCount == 0) return row;
+        long c = (long) CURSOR.getOpaque(this);
+        int cursorRow = (int) (c >> 32), cursorSlot = (int) c;
+        int slot;
+        if (row == cursorRow) {
+            slot = cursorSlot;
+        } else if (row == cursorRow + 1) {
+            slot = deleted.nextClearBit(cursorSlot + 1);
+        } else if (row == cursorRow - 1) {
+            slot = deleted.previousClearBit(cursorSlot - 1);
+        } else {
+            slot = balances.slotOfRow(row);
+        }
+        CURSOR.setOpaque(this, ((long) row << 32) | (slot & 0xFFFFFFFFL));
+        return slot;
+    }
+
+    private void resetCursor() {
+        // row -1 sits just before slot -1, so a scan from row 0 still uses the fast path
+        CURSOR.setOpaque(this, NO_CURSOR);
+    }
+
+    // ---- lookups that write no field, safe under an optimistic read (ConcurrentLedgerStore) ----
+
+    private int slotOfQuietly(int row) {
+        if (row < 0 || row >= size()) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of range [0, " + size() + ")");
+        }
+        return deletedCount == 0 ? row : balances.slotOfRow(row);
+    }
+
+    long peekAmountCents(int row)  { return amounts[slotOfQuietly(row)]; }
+
+    IntPredicate peekVendorContains(String lowerSubstring) {
+        TextMatcher m = new TextMatcher(vendorDict, lowerSubstring);
+        return row -> m.test(vendors[slotOfQuietly(row)]);
+    }
+
+    IntPredicate peekDescriptionContains(String lowerSubstring) {
+        TextMatcher m = new TextMatcher(descriptionDict, lowerSubstring);
+        return row -> m.test(descriptions[slotOfQuietly(row)]);
+    }
+
+    /**
+     * Drops dead slots once they outnumber live rows; O(n) but amortised over the deletes
+     */
+    private void maybeCompact() {
+        if (deletedCount < MIN_COMPACT_SLOTS || deletedCount < size()) return;
+        BitSet removedSlots = (BitSet) deleted.clone();
+        int write = 0;
+        for (int read = 0; read < slotCount; read++) {
+            if (deleted.get(read)) continue;
+            if (write != read) {
+                timestamps[write] = timestamps[read];
+                amounts[write] = amounts[read];
+                descriptions[write] = descriptions[read];
+                vendors[write] = vendors[read];
+                categories[write] = categories[read];
+            }
+            write++;
+        }
+        slotCount = write;
+        deleted.clear();
+        deletedCount = 0;
+        resetCursor();
+        balances.rebuild(amounts, deleted, slotCount);
+        dates.rebuild(timestamps, deleted, slotCount);
+        dateTotals = null;
+        descriptionGrams.clear();
+        vendorGrams.clear();
+        for (int slot = 0; slot < slotCount; slot++) {
+            descriptionGrams.add(slot, descriptions[slot], descriptionDict.lower(descriptions[slot]));
+            vendorGrams.add(slot, vendors[slot], vendorDict.lower(vendors[slot]));
+        }
+        for (LedgerListener l : listeners) l.slotsCompacted(removedSlots);
+    }
+
+    /**
+     * Drops removed slots from the trigram postings once they are a quarter of them;
+     * until then searches skip those candidates through the deleted set
+     */
+    private void maybePruneGrams() {
+        if (descriptionGrams.needsPrune()) descriptionGrams.prune(deleted);
+        if (vendorGrams.needsPrune()) vendorGrams.prune(deleted);
+    }
+
+    // ---- helpers ----
+
+    private Transaction detach(int slot) {
+        long ts = timestamps[slot];
+        return new Transaction(LedgerTime.formatDate(ts), LedgerTime.formatTime(ts),
+                descriptionDict.decode(descriptions[slot]),
+                vendorDict.decode(vendors[slot]),
+                categoryDict.decode(categories[slot]),
+                amounts[slot] / 100.0, balances.prefix(slot) / 100.0);
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= timestamps.length) return;
+        int cap = Math.max(needed, timestamps.length + (timestamps.length >> 1));
+        timestamps = Arrays.copyOf(timestamps, cap);
+        amounts = Arrays.copyOf(amounts, cap);
+        descriptions = Arrays.copyOf(descriptions, cap);
+        vendors = Arrays.copyOf(vendors, cap);
+        categories = Arrays.copyOf(categories, cap);
+    }
+
+    /**
+     * A Transaction that reads its fields straight from the columns. The balance
+     * is derived from the index on demand, so it is always current.
+     */
+    private class SlotView extends Transaction {
+        private final int slot;
+
+        SlotView(int slot) {
+            this.slot = slot;
+        }
+
+        @Override public String getDate()        { return LedgerTime.formatDate(timestamps[slot]); }
+        @Override public String getTime()        { return LedgerTime.formatTime(timestamps[slot]); }
+        @Override public String getDescription() { return descriptionDict.decode(descriptions[slot]); }
+        @Override public String getVendor()      { return vendorDict.decode(vendors[slot]); }
+        @Override public String getCategory()    { return categoryDict.decode(categories[slot]); }
+        @Override public double getAmount()      { return amounts[slot] / 100.0; }
+        @Override public double getBalance()     { return balances.prefix(slot) / 100.0; }
+        @Override public long getAmountCents()   { return amounts[slot]; }
+
+        @Override
+        public void setBalance(double balance) {
+            throw new UnsupportedOperationException("Balances are derived by the store");
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.pluralsight.store;
+
+import com.pluralsight.Transaction;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe {@link LedgerStore} around a {@link ColumnarLedgerStore}.
+ *
+ * Writers (appends, removes, edits) are serialised by the write side of a
+ * {@link StampedLock}; each one is short, so many appending threads simply
+ * queue up and no update can be lost. Single-value reads (balance, size, one
+ * row's amount) are optimistic: they read without locking and retry under the
+ * read lock only if a write slipped in. Scans and searches share the read
+ * lock and return detached copies, never live views, because a view would
+ * read the columns after the lock is gone.
+ *
+ * Listeners run inside the write lock. Predicates passed to select/removeIf
+ * may call the single-value reads of this store (e.g. {@code amountCents(row)})
+ * but not the locked ones, since the lock is not reentrant for readers.
+ */
+public class ConcurrentLedgerStore implements LedgerStore {
+    private final ColumnarLedgerStore store;
+    private final StampedLock lock = new StampedLock();
+    // Thread holding the write lock, so its own reads (from predicates) skip locking
+    private volatile Thread writer;
+
+    public ConcurrentLedgerStore() {
+        this(new ColumnarLedgerStore());
+    }
+
+    /**
+     * Takes ownership of store; it must not be used directly afterwards
+     */
+    public ConcurrentLedgerStore(ColumnarLedgerStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Runs several reads against one consistent state of the ledger. The
+     * store handed to reader is the unsynchronised one: nothing it returns
+     * that reads lazily (rows, lists) may escape the call.
+     */
+    public <T> T read(Function<LedgerStore, T> reader) {
+        if (writer == Thread.currentThread()) return reader.apply(store);
+        long stamp = lock.readLock();
+        try {
+            return reader.apply(store);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Runs several changes as one atomic update
+     */
+    public <T> T write(Function<LedgerStore, T> change) {
+        if (writer == Thread.currentThread()) return change.apply(store);
+        long stamp = lock.writeLock();
+        writer = Thread.currentThread();
+        try {
+            return change.apply(store);
+        } finally {
+            writer = null;
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // ---- optimistic single-value reads ----
+
+    @Override public int size()                   { return (int) optimistic(store::size); }
+    @Override public int slotCount()              { return (int) optimistic(store::slotCount); }
+    @Override public long balanceCents()          { return optimistic(store::balanceCents); }
+    @Override public long amountCents(int row)    { return optimistic(() -> store.peekAmountCents(row)); }
+
+    /**
+     * Reads without locking and keeps the value if no write happened meanwhile.
+     * A racing write can leave the read half-done (even throwing, e.g. while a
+     * column is being grown); such attempts are thrown away and repeated under
+     * the read lock. Only cursor-free store methods may be used here.
+     */
+    private long optimistic(LongSupplier read) {
+        if (writer == Thread.currentThread()) return read.getAsLong();
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                long value = read.getAsLong();
+                if (lock.validate(stamp)) return value;
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) throw e; // a genuine error, e.g. row out of range
+            }
+        }
+        return read(s -> read.getAsLong());
+    }
+
+    // ---- locked reads ----
+
+    @Override public AmountStats amountStats()      { return read(LedgerStore::amountStats); }
+    @Override public long[] balancesCents()         { return read(LedgerStore::balancesCents); }
+    @Override public long balanceAsOfCents(long at) { return read(s -> s.balanceAsOfCents(at)); }
+
+    // The date-order totals an out-of-order ledger needs are built lazily, but published
+    // as one immutable volatile holder, so concurrent readers at worst build them twice
+    @Override
+    public BalanceRange balanceBetween(long fromEpochSecond, long toEpochSecond) {
+        return read(s -> s.balanceBetween(fromEpochSecond, toEpochSecond));
+    }
+
+    // Category min/max are recomputed lazily inside the store, which is a write
+    @Override public CategorySummary category(String cat)   { return write(s -> s.category(cat)); }
+    @Override public List<CategorySummary> categories()     { return write(LedgerStore::categories); }
+
+    @Override
+    public Transaction get(int row) {
+        return read(s -> detach(s.get(row)));
+    }
+
+    /**
+     * Copy of every row, newest first
+     */
+    @Override
+    public List<Transaction> newestFirst() {
+        return read(s -> detach(s.newestFirst()));
+    }
+
+    @Override
+    public List<Transaction> select(IntPredicate rowFilter) {
+        return read(s -> detach(s.select(rowFilter)));
+    }
+
+    @Override
+    public List<Transaction> search(String startDate, String endDate, String descContains, String vendorContains) {
+        return read(s -> detach(s.search(startDate, endDate, descContains, vendorContains)));
+    }
+
+    @Override
+    public QueryResult query(LedgerQuery query) {
+        return read(s -> {
+            QueryResult r = s.query(query);
+            return new QueryResult(detach(r.getRows()), r.getIndex(), r.getExamined());
+        });
+    }
+
+    // The predicates test rows optimistically, so they use the cursor-free lookups
+    @Override
+    public IntPredicate vendorContains(String lowerSubstring) {
+        IntPredicate p = read(s -> store.peekVendorContains(lowerSubstring));
+        return row -> optimistic(() -> p.test(row) ? 1 : 0) == 1;
+    }
+
+    @Override
+    public IntPredicate descriptionContains(String lowerSubstring) {
+        IntPredicate p = read(s -> store.peekDescriptionContains(lowerSubstring));
+        return row -> optimistic(() -> p.test(row) ? 1 : 0) == 1;
+    }
+
+    // ---- writes ----
+
+    @Override public void addListener(LedgerListener listener) { write(s -> { s.addListener(listener); return null; }); }
+    @Override public void append(Transaction t)                { write(s -> { s.append(t); return null; }); }
+    @Override public void appendAll(RowBatch batch)            { write(s -> { s.appendAll(batch); return null; }); }
+    @Override public Transaction remove(int row)               { return write(s -> s.remove(row)); }
+    @Override public int removeIf(IntPredicate rowFilter)      { return write(s -> s.removeIf(rowFilter)); }
+    @Override public int removeSlots(BitSet slots)             { return write(s -> s.removeSlots(slots)); }
+    @Override public int removeByVendor(String lower)          { return write(s -> s.removeByVendor(lower)); }
+    @Override public void clear()                              { write(s -> { s.clear(); return null; }); }
+    @Override public void recalculateBalances()                { write(s -> { s.recalculateBalances(); return null; }); }
+
+    @Override
+    public int removeBetween(long fromEpochSecond, long toEpochSecond) {
+        return write(s -> s.removeBetween(fromEpochSecond, toEpochSecond));
+    }
+
+    @Override
+    public int removeMatching(String startDate, String endDate, String descContains, String vendorContains) {
+        return write(s -> s.removeMatching(startDate, endDate, descContains, vendorContains));
+    }
+
+    private static Transaction detach(Transaction view) {
+        return new Transaction(view.getDate(), view.getTime(), view.getDescription(), view.getVendor(),
+                view.getCategory(), view.getAmount(), view.getBalance());
+    }
+
+    private static List<Transaction> detach(List<Transaction> views) {
+        List<Transaction> out = new ArrayList<>(views.size());
+        for (Transaction v : views) out.add(detach(v));
+        return out;
+    }
+}
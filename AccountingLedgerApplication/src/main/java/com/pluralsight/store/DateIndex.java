@@ -0,0 +1,118 @@
+package com.pluralsight.store;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Slots of a {@link ColumnarLedgerStore} ordered by timestamp, so a date range
+ * resolves to a contiguous slice by binary search.
+ *
+ * Entries are (epoch second, slot) pairs kept in two parallel arrays sorted by
+ * timestamp, then slot. Ledger rows are normally appended in time order, which
+ * makes an append O(1); an out-of-order row is inserted with one array shift.
+ * Deleted slots stay in the index and are skipped by the store until the next
+ * compaction rebuilds it.
+ *
+ * While no row has been inserted out of order, index order and slot order
+ * agree ({@link #isSlotOrdered()}), so a balance "as of" a time is simply the
+ * running balance at the last slot on or before it.
+ */
+class DateIndex {
+    private long[] keys = new long[1024];
+    private int[] slots = new int[1024];
+    private int size;
+    private boolean slotOrdered = true;
+
+    int size() { return size; }
+
+    /** True if ascending positions also have ascending slots */
+    boolean isSlotOrdered() { return slotOrdered; }
+
+    long keyAt(int pos) { return keys[pos]; }
+    int slotAt(int pos) { return slots[pos]; }
+
+    void add(long epochSecond, int slot) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            slots = Arrays.copyOf(slots, size * 2);
+        }
+        // Slots only grow, so (key, slot) order only needs the key compared
+        int pos = size;
+        if (size > 0 && keys[size - 1] > epochSecond) {
+            pos = upperBound(epochSecond);
+            slotOrdered = false;
+            System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+            System.arraycopy(slots, pos, slots, pos + 1, size - pos);
+        }
+        keys[pos] = epochSecond;
+        slots[pos] = slot;
+        size++;
+    }
+
+    /**
+     * First position whose key is >= epochSecond
+     */
+    int lowerBound(long epochSecond) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < epochSecond) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * First position whose key is > epochSecond
+     */
+    int upperBound(long epochSecond) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] <= epochSecond) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    void clear() {
+        size = 0;
+        slotOrdered = true;
+    }
+
+    /**
+     * Rebuilds the index from the timestamp column, leaving out deleted slots
+     */
+    void rebuild(long[] timestamps, BitSet deleted, int slotCount) {
+        size = 0;
+        boolean sorted = true;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (deleted.get(slot)) continue;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(size * 2, slotCount));
+                slots = Arrays.copyOf(slots, keys.length);
+            }
+            if (size > 0 && keys[size - 1] > timestamps[slot]) sorted = false;
+            keys[size] = timestamps[slot];
+            slots[size] = slot;
+            size++;
+        }
+        slotOrdered = sorted;
+        if (!sorted) sortByTime();
+    }
+
+    // Rare path (hand-edited or merged files): sort the pairs by key, then slot
+    private void sortByTime() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        long[] k = keys;
+        int[] s = slots;
+        Arrays.sort(order, (a, b) -> k[a] != k[b] ? Long.compare(k[a], k[b]) : Integer.compare(s[a], s[b]));
+        long[] newKeys = new long[keys.length];
+        int[] newSlots = new int[slots.length];
+        for (int i = 0; i < size; i++) {
+            newKeys[i] = k[order[i]];
+            newSlots[i] = s[order[i]];
+        }
+        keys = newKeys;
+        slots = newSlots;
+    }
+}
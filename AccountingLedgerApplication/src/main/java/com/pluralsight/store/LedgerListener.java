@@ -0,0 +1,32 @@
+package com.pluralsight.store;
+
+import com.pluralsight.Transaction;
+
+import java.util.BitSet;
+
+/**
+ * Callback for components that mirror a {@link LedgerStore} (persistence,
+ * charts). Slots are the store's stable physical row numbers: they only change
+ * when the store compacts, which is reported through {@link #slotsCompacted}.
+ */
+public interface LedgerListener {
+
+    /**
+     * A new row was appended at slot; row is a live view of it
+     */
+    default void rowAppended(int slot, Transaction row) {
+    }
+
+    /**
+     * The row at slot was removed
+     */
+    default void rowRemoved(int slot) {
+    }
+
+    /**
+     * Dead slots were dropped; every surviving slot moved down by the number
+     * of removed slots below it
+     */
+    default void slotsCompacted(BitSet removedSlots) {
+    }
+}
@@ -0,0 +1,205 @@
+package com.pluralsight.store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Criteria, order and row limit for {@link LedgerStore#query}. Unset criteria
+ * match everything; text filters are case-insensitive "contains", the
+ * category is matched whole (ignoring case), dates and amounts are inclusive.
+ * Without a sort, rows come newest first.
+ *
+ * {@link #parse} reads the one-line form the Ledger menu takes, e.g.
+ * <pre>
+ * vendor:amazon from:2024-01-01 amount&gt;50 sort:amount limit:10
+ * payments top:20
+ * category:"eating out" to:2023-12-31 sort:date asc
+ * </pre>
+ */
+public class LedgerQuery {
+    /** Sort keys; SIZE is the amount ignoring its sign, so the biggest payments come first */
+    public enum Sort { DATE, AMOUNT, SIZE }
+
+    private long fromEpochSecond = Long.MIN_VALUE;
+    private long toEpochSecond = Long.MAX_VALUE;
+    private String description = "";
+    private String vendor = "";
+    private String category = "";
+    private long minCents = Long.MIN_VALUE;
+    private long maxCents = Long.MAX_VALUE;
+    private Sort sort = Sort.DATE;
+    private boolean descending = true;
+    private int limit = -1;
+
+    // ---- building ----
+
+    /** Rows on or after the start of date (yyyy-MM-dd) */
+    public LedgerQuery from(String date) {
+        fromEpochSecond = LedgerTime.parseEpochDay(date) * LedgerTime.SECONDS_PER_DAY;
+        return this;
+    }
+
+    /** Rows on or before the end of date (yyyy-MM-dd) */
+    public LedgerQuery to(String date) {
+        toEpochSecond = (LedgerTime.parseEpochDay(date) + 1) * LedgerTime.SECONDS_PER_DAY - 1;
+        return this;
+    }
+
+    public LedgerQuery description(String contains) {
+        description = contains.toLowerCase();
+        return this;
+    }
+
+    public LedgerQuery vendor(String contains) {
+        vendor = contains.toLowerCase();
+        return this;
+    }
+
+    public LedgerQuery category(String name) {
+        category = name.toLowerCase();
+        return this;
+    }
+
+    public LedgerQuery minCents(long cents) {
+        minCents = cents;
+        return this;
+    }
+
+    public LedgerQuery maxCents(long cents) {
+        maxCents = cents;
+        return this;
+    }
+
+    public LedgerQuery sort(Sort sort, boolean descending) {
+        this.sort = sort;
+        this.descending = descending;
+        return this;
+    }
+
+    /** At most this many rows (negative for all) */
+    public LedgerQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    // ---- reading ----
+
+    public long getFromEpochSecond() { return fromEpochSecond; }
+    public long getToEpochSecond()   { return toEpochSecond; }
+    public String getDescription()   { return description; }
+    public String getVendor()        { return vendor; }
+    public String getCategory()      { return category; }
+    public long getMinCents()        { return minCents; }
+    public long getMaxCents()        { return maxCents; }
+    public Sort getSort()            { return sort; }
+    public boolean isDescending()    { return descending; }
+    public int getLimit()            { return limit; }
+
+    boolean isDated() {
+        return fromEpochSecond != Long.MIN_VALUE || toEpochSecond != Long.MAX_VALUE;
+    }
+
+    // ---- one-line syntax ----
+
+    /**
+     * Parses a one-line query; terms are separated by spaces and may come in
+     * any order:
+     * <ul>
+     *   <li>{@code from:yyyy-MM-dd}, {@code to:yyyy-MM-dd}, {@code date:yyyy-MM-dd} (one day)</li>
+     *   <li>{@code desc:text}, {@code vendor:text}, {@code category:name}; quote values with spaces</li>
+     *   <li>{@code amount>n}, {@code amount>=n}, {@code amount<n}, {@code amount<=n}, {@code amount:n}; dollars</li>
+     *   <li>{@code deposits}, {@code payments}</li>
+     *   <li>{@code sort:date|amount|size}, optionally followed by {@code asc} or {@code desc} (default desc)</li>
+     *   <li>{@code limit:n}, and {@code top:n} for the n largest amounts ignoring sign</li>
+     * </ul>
+     * Throws IllegalArgumentException naming the term it could not read.
+     */
+    public static LedgerQuery parse(String line) {
+        LedgerQuery q = new LedgerQuery();
+        List<String> terms = split(line);
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            String lower = term.toLowerCase(Locale.ROOT);
+            try {
+                if (lower.equals("deposits")) {
+                    q.minCents(Math.max(q.minCents, 1));
+                } else if (lower.equals("payments")) {
+                    q.maxCents(Math.min(q.maxCents, -1));
+                } else if (lower.startsWith("amount")) {
+                    q.amount(term.substring("amount".length()));
+                } else if (lower.startsWith("sort:")) {
+                    Sort sort = Sort.valueOf(term.substring(5).trim().toUpperCase(Locale.ROOT));
+                    boolean descending = true;
+                    if (i + 1 < terms.size() && terms.get(i + 1).matches("(?i)asc|desc")) {
+                        descending = terms.get(++i).equalsIgnoreCase("desc");
+                    }
+                    q.sort(sort, descending);
+                } else {
+                    int colon = term.indexOf(':');
+                    if (colon < 0) throw new IllegalArgumentException();
+                    String value = term.substring(colon + 1);
+                    switch (lower.substring(0, colon)) {
+                        case "from":     q.from(value); break;
+                        case "to":       q.to(value); break;
+                        case "date":     q.from(value).to(value); break;
+                        case "desc":
+                        case "description": q.description(value); break;
+                        case "vendor":   q.vendor(value); break;
+                        case "category": q.category(value); break;
+                        case "limit":    q.limit(nonNegative(value)); break;
+                        case "top":      q.sort(Sort.SIZE, true).limit(nonNegative(value)); break;
+                        default:         throw new IllegalArgumentException();
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                String reason = e.getMessage() == null ? "" : " (" + e.getMessage() + ")";
+                throw new IllegalArgumentException("Cannot read query term '" + term + "'" + reason, e);
+            }
+        }
+        return q;
+    }
+
+    // Applies one ">=12.50"-style amount bound
+    private void amount(String bound) {
+        String op = bound.startsWith(">=") || bound.startsWith("<=") ? bound.substring(0, 2)
+                : bound.isEmpty() ? "" : bound.substring(0, 1);
+        long cents = Math.round(Double.parseDouble(bound.substring(op.length())) * 100);
+        switch (op) {
+            case ">":  minCents(Math.max(minCents, cents + 1)); break;
+            case ">=": minCents(Math.max(minCents, cents)); break;
+            case "<":  maxCents(Math.min(maxCents, cents - 1)); break;
+            case "<=": maxCents(Math.min(maxCents, cents)); break;
+            case ":":
+            case "=":  minCents(cents).maxCents(cents); break;
+            default:   throw new IllegalArgumentException("expected amount>n, amount<n or amount:n");
+        }
+    }
+
+    private static int nonNegative(String value) {
+        int n = Integer.parseInt(value.trim());
+        if (n < 0) throw new IllegalArgumentException("must not be negative");
+        return n;
+    }
+
+    // Splits on spaces, keeping "quoted values" together (quotes removed)
+    private static List<String> split(String line) {
+        List<String> terms = new ArrayList<>();
+        StringBuilder term = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ' ' && !quoted) {
+                if (term.length() > 0) terms.add(term.toString());
+                term.setLength(0);
+            } else {
+                term.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Unclosed quote in query");
+        if (term.length() > 0) terms.add(term.toString());
+        return terms;
+    }
+}
@@ -0,0 +1,154 @@
+package com.pluralsight.store;
+
+import com.pluralsight.Transaction;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * In-memory ledger. Rows are numbered in chronological (file) order: row 0 is
+ * the oldest transaction and row size()-1 the newest. Amounts and balances
+ * are exact cents.
+ *
+ * Each row also sits in a physical slot: slots are numbered in append order,
+ * keep their number when other rows are removed and are only renumbered by a
+ * compaction (reported to {@link LedgerListener}s). Persistence uses slots to
+ * name rows in tombstone records.
+ */
+public interface LedgerStore {
+
+    int size();
+
+    /**
+     * Number of slots in use, live or removed; the next append gets this slot
+     */
+    int slotCount();
+
+    void addListener(LedgerListener listener);
+
+    /**
+     * Returns a live view of one row; its balance always reflects the current ledger
+     */
+    Transaction get(int row);
+
+    /**
+     * All rows newest-first, which is the order the menus display them in
+     */
+    List<Transaction> newestFirst();
+
+    /**
+     * Rows matching rowFilter, newest-first
+     */
+    List<Transaction> select(IntPredicate rowFilter);
+
+    /**
+     * Appends a new (newest) transaction and updates the running balance
+     */
+    void append(Transaction t);
+
+    /**
+     * Appends a batch of rows that are already in chronological order
+     */
+    void appendAll(RowBatch batch);
+
+    /**
+     * Removes one row and returns a detached copy of it
+     */
+    Transaction remove(int row);
+
+    /**
+     * Removes every row matching rowFilter and returns how many were removed
+     */
+    int removeIf(IntPredicate rowFilter);
+
+    /**
+     * Removes the rows in the given slots (already removed slots are ignored)
+     */
+    int removeSlots(BitSet slots);
+
+    /**
+     * Removes every row timestamped within [fromEpochSecond, toEpochSecond] using the date index
+     */
+    int removeBetween(long fromEpochSecond, long toEpochSecond);
+
+    /**
+     * Removes every row whose vendor contains the given lower-case substring
+     */
+    int removeByVendor(String lowerSubstring);
+
+    /**
+     * Removes every row {@link #search} would return for the same criteria and
+     * returns how many were removed; blank criteria match everything
+     */
+    int removeMatching(String startDate, String endDate, String descContains, String vendorContains);
+
+    void clear();
+
+    /**
+     * Rebuilds the balance index from the amounts (balances are otherwise maintained incrementally)
+     */
+    void recalculateBalances();
+
+    // ---- column access ----
+
+    long amountCents(int row);
+
+    // ---- aggregates and searches run directly over the columns ----
+
+    /** Closing balance in cents (0 for an empty ledger) */
+    long balanceCents();
+
+    /** Deposits, payments, smallest/largest amount and row count in one pass */
+    AmountStats amountStats();
+
+    /** Running balance after each row in cents, oldest row first */
+    long[] balancesCents();
+
+    /**
+     * Sum of every row timestamped at or before epochSecond; O(log n) through the date index
+     */
+    long balanceAsOfCents(long epochSecond);
+
+    /**
+     * Opening balance (before fromEpochSecond), closing balance (at toEpochSecond)
+     * and row count of [fromEpochSecond, toEpochSecond], without visiting the rows in between
+     */
+    BalanceRange balanceBetween(long fromEpochSecond, long toEpochSecond);
+
+    /**
+     * Maintained totals for one category (ignoring case), or null if no row uses it
+     */
+    CategorySummary category(String category);
+
+    /**
+     * Maintained totals for every category that has rows
+     */
+    List<CategorySummary> categories();
+
+    /**
+     * Matches rows whose vendor contains the given lower-case substring
+     */
+    IntPredicate vendorContains(String lowerSubstring);
+
+    /**
+     * Matches rows whose description contains the given lower-case substring
+     */
+    IntPredicate descriptionContains(String lowerSubstring);
+
+    /**
+     * Interactive search: blank arguments are ignored, dates are inclusive yyyy-MM-dd,
+     * text filters are case-insensitive "contains". A date range is resolved
+     * through the date index and text filters of three or more chars through a
+     * trigram index, whichever leaves fewer rows to examine. Results are
+     * newest-first.
+     */
+    List<Transaction> search(String startDate, String endDate, String descContains, String vendorContains);
+
+    /**
+     * Runs a query in one pass over the most selective of the date index and
+     * the description/vendor trigram indexes, testing all criteria together.
+     * Sorted queries with a limit keep only the best rows in a bounded heap.
+     */
+    QueryResult query(LedgerQuery query);
+}
@@ -0,0 +1,164 @@
+package com.pluralsight.store;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Converts the ledger's "yyyy-MM-dd" / "HH:mm:ss" strings to and from a single
+ * epoch-second value (local time, no zone) used by the columnar store.
+ * Reading is lenient about older files: "2023-4-5" and "9:05" are accepted too;
+ * anything else is rejected, so a row whose date or time cannot be read is
+ * skipped as a bad line rather than loaded under a made-up date.
+ */
+public final class LedgerTime {
+    public static final long SECONDS_PER_DAY = 86_400;
+
+    private LedgerTime() {
+    }
+
+    /**
+     * Parses a date and time into epoch seconds; throws IllegalArgumentException if either is malformed
+     */
+    public static long toEpochSecond(String date, String time) {
+        return parseEpochDay(date) * SECONDS_PER_DAY + parseSecondOfDay(time);
+    }
+
+    /**
+     * Parses "yyyy-MM-dd" (month and day may be one digit) into an epoch day
+     */
+    public static long parseEpochDay(String date) {
+        date = date.trim();
+        int first = date.indexOf('-');
+        int second = first < 0 ? -1 : date.indexOf('-', first + 1);
+        if (first == 4 && second - first >= 2 && second - first <= 3
+                && date.length() - second >= 2 && date.length() - second <= 3) {
+            int y = digits(date, 0, first), m = digits(date, first + 1, second), d = digits(date, second + 1, date.length());
+            if (y >= 0 && m >= 1 && m <= 12 && d >= 1 && d <= 31) {
+                try {
+                    return LocalDate.of(y, m, d).toEpochDay();
+                } catch (DateTimeException ignored) {
+                    // falls through to the error below
+                }
+            }
+        }
+        throw new IllegalArgumentException("Invalid date (expected yyyy-MM-dd): " + date);
+    }
+
+    /**
+     * Parses "H:mm[:ss]" (or anything LocalTime accepts) into seconds since midnight
+     */
+    public static int parseSecondOfDay(String time) {
+        time = time.trim();
+        int first = time.indexOf(':');
+        if (first == 1 || first == 2) {
+            int second = time.indexOf(':', first + 1);
+            int minuteEnd = second < 0 ? time.length() : second;
+            if (minuteEnd - first == 3 && (second < 0 || time.length() - second == 3)) {
+                int h = digits(time, 0, first), m = digits(time, first + 1, minuteEnd);
+                int s = second < 0 ? 0 : digits(time, second + 1, time.length());
+                if (h >= 0 && h < 24 && m >= 0 && m < 60 && s >= 0 && s < 60) {
+                    return h * 3600 + m * 60 + s;
+                }
+            }
+        }
+        try {
+            return LocalTime.parse(time).toSecondOfDay();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid time (expected HH:mm:ss): " + time, e);
+        }
+    }
+
+    /**
+     * Byte-level fast path for a canonical "yyyy-MM-dd" + "HH:mm:ss" pair held in
+     * UTF-8 buffers; returns Long.MIN_VALUE for anything else so callers can
+     * fall back to {@link #toEpochSecond(String, String)}
+     */
+    public static long toEpochSecond(byte[] buf, int dateFrom, int dateTo, int timeFrom, int timeTo) {
+        if (dateTo - dateFrom != 10 || timeTo - timeFrom != 8
+                || buf[dateFrom + 4] != '-' || buf[dateFrom + 7] != '-'
+                || buf[timeFrom + 2] != ':' || buf[timeFrom + 5] != ':') {
+            return Long.MIN_VALUE;
+        }
+        int y = digits(buf, dateFrom, dateFrom + 4), mo = digits(buf, dateFrom + 5, dateFrom + 7);
+        int d = digits(buf, dateFrom + 8, dateFrom + 10);
+        int h = digits(buf, timeFrom, timeFrom + 2), mi = digits(buf, timeFrom + 3, timeFrom + 5);
+        int s = digits(buf, timeFrom + 6, timeFrom + 8);
+        if (y < 0 || mo < 1 || mo > 12 || d < 1 || d > daysInMonth(y, mo)
+                || h < 0 || h > 23 || mi < 0 || mi > 59 || s < 0 || s > 59) {
+            return Long.MIN_VALUE;
+        }
+        return epochDay(y, mo, d) * SECONDS_PER_DAY + h * 3600 + mi * 60 + s;
+    }
+
+    public static long epochDay(long epochSecond) {
+        return Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+    }
+
+    public static String formatDate(long epochSecond) {
+        return LocalDate.ofEpochDay(epochDay(epochSecond)).toString();
+    }
+
+    public static String formatTime(long epochSecond) {
+        int sec = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+        char[] out = new char[8];
+        two(out, 0, sec / 3600);
+        out[2] = ':';
+        two(out, 3, sec / 60 % 60);
+        out[5] = ':';
+        two(out, 6, sec % 60);
+        return new String(out);
+    }
+
+    private static void two(char[] out, int at, int value) {
+        out[at] = (char) ('0' + value / 10);
+        out[at + 1] = (char) ('0' + value % 10);
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4: case 6: case 9: case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // Civil date to epoch day without allocating a LocalDate (same algorithm as LocalDate.toEpochDay)
+    private static long epochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+        total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!(year % 4 == 0 && (year % 100 != 0 || year % 400 == 0))) total--;
+        }
+        return total - 719_528;
+    }
+
+    private static int digits(byte[] b, int from, int to) {
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            int c = b[i] - '0';
+            if (c < 0 || c > 9) return -1;
+            v = v * 10 + c;
+        }
+        return v;
+    }
+
+    // Parses s[from, to) as a non-negative decimal, or returns -1
+    private static int digits(String s, int from, int to) {
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+}
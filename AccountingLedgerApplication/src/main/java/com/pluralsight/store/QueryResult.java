@@ -0,0 +1,25 @@
+package com.pluralsight.store;
+
+import com.pluralsight.Transaction;
+
+import java.util.List;
+
+/**
+ * Rows returned by {@link LedgerStore#query}, with the index the query was
+ * driven by and how many rows it had to examine.
+ */
+public class QueryResult {
+    private final List<Transaction> rows;
+    private final String index;
+    private final int examined;
+
+    public QueryResult(List<Transaction> rows, String index, int examined) {
+        this.rows = rows;
+        this.index = index;
+        this.examined = examined;
+    }
+
+    public List<Transaction> getRows() { return rows; }
+    public String getIndex()           { return index; }
+    public int getExamined()           { return examined; }
+}
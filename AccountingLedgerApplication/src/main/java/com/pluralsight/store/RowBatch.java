@@ -0,0 +1,47 @@
+package com.pluralsight.store;
+
+import java.util.Arrays;
+
+/**
+ * A block of parsed rows in file order, filled by a loader thread and then
+ * appended to a {@link LedgerStore} in one go. Strings are kept raw here;
+ * dictionary encoding happens when the batch is appended.
+ */
+public class RowBatch {
+    long[] timestamps = new long[1024];
+    long[] amounts = new long[1024];
+    String[] descriptions = new String[1024];
+    String[] vendors = new String[1024];
+    String[] categories = new String[1024];
+    int size;
+
+    public void add(long epochSecond, long amountCents, String description, String vendor, String category) {
+        if (size == timestamps.length) grow();
+        timestamps[size] = epochSecond;
+        amounts[size] = amountCents;
+        descriptions[size] = description;
+        vendors[size] = vendor;
+        categories[size] = category;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(descriptions, 0, size, null);
+        Arrays.fill(vendors, 0, size, null);
+        Arrays.fill(categories, 0, size, null);
+        size = 0;
+    }
+
+    private void grow() {
+        int cap = size + (size >> 1);
+        timestamps = Arrays.copyOf(timestamps, cap);
+        amounts = Arrays.copyOf(amounts, cap);
+        descriptions = Arrays.copyOf(descriptions, cap);
+        vendors = Arrays.copyOf(vendors, cap);
+        categories = Arrays.copyOf(categories, cap);
+    }
+}
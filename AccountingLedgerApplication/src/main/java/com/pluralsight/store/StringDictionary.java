@@ -0,0 +1,60 @@
+package com.pluralsight.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps repeated strings (vendors, categories, descriptions) to dense int ids
+ * so a column only has to hold one int per row. Each value's lower-case form
+ * is kept next to it, so case-insensitive searches never lower-case rows.
+ */
+public class StringDictionary {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    // Same string as in values when it is already lower case
+    private final List<String> lowerValues = new ArrayList<>();
+
+    /**
+     * Returns the id of value, adding it if it has not been seen before
+     */
+    public int encode(String value) {
+        Integer id = ids.get(value);
+        if (id != null) return id;
+        int next = values.size();
+        ids.put(value, next);
+        values.add(value);
+        lowerValues.add(value.toLowerCase());
+        return next;
+    }
+
+    /**
+     * Returns the id of value or -1 when the dictionary does not contain it
+     */
+    public int lookup(String value) {
+        Integer id = ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    public String decode(int id) {
+        return values.get(id);
+    }
+
+    /**
+     * Lower-case form of the value with this id
+     */
+    public String lower(int id) {
+        return lowerValues.get(id);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public void clear() {
+        ids.clear();
+        values.clear();
+        lowerValues.clear();
+    }
+}
@@ -0,0 +1,55 @@
+package com.pluralsight.store;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical instances for the heavily repeated text of {@link com.pluralsight.Transaction}
+ * objects (dates, times, vendors, categories), so a million rows of the same
+ * few hundred vendors hold a few hundred Strings rather than a million.
+ *
+ * Thread-safe, since rows are built on loader and server threads. A pool stops
+ * growing at its limit: values seen after that are returned as they are, so a
+ * field with unexpectedly many distinct values costs no more than before.
+ * Inside a {@link ColumnarLedgerStore} the same fields are int codes of a
+ * {@link StringDictionary}; this pool is for the rows held outside one.
+ *
+ * {@code -Dledger.stringPool=off} turns pooling off (every value is returned
+ * as it is), e.g. to measure what it saves.
+ */
+public final class StringPool {
+    private static final boolean ENABLED = !"off".equalsIgnoreCase(System.getProperty("ledger.stringPool", "on"));
+
+    /** yyyy-MM-dd; a ledger spans a few thousand days */
+    public static final StringPool DATES = new StringPool(1 << 16);
+    /** HH:mm:ss; every second of a day fits */
+    public static final StringPool TIMES = new StringPool(1 << 17);
+    public static final StringPool VENDORS = new StringPool(1 << 16);
+    public static final StringPool CATEGORIES = new StringPool(1 << 16);
+
+    private final ConcurrentHashMap<String, String> canonical = new ConcurrentHashMap<>();
+    private final int limit;
+
+    public StringPool(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * The pooled instance equal to value (value itself the first time it is seen)
+     */
+    public String intern(String value) {
+        if (value == null || !ENABLED) return value;
+        String pooled = canonical.get(value);
+        if (pooled != null) return pooled;
+        if (canonical.size() >= limit) return value;
+        pooled = canonical.putIfAbsent(value, value);
+        return pooled == null ? value : pooled;
+    }
+
+    public int size() {
+        return canonical.size();
+    }
+
+    public void clear() {
+        canonical.clear();
+    }
+}
@@ -0,0 +1,27 @@
+package com.pluralsight.store;
+
+import java.util.BitSet;
+
+/**
+ * Case-insensitive "contains" test on dictionary ids. Each distinct value's
+ * pre-lowered form is checked at most once per query, however many rows share it.
+ */
+class TextMatcher {
+    private final StringDictionary dict;
+    private final String lowerQuery;
+    private final BitSet checked = new BitSet();
+    private final BitSet matched = new BitSet();
+
+    TextMatcher(StringDictionary dict, String lowerQuery) {
+        this.dict = dict;
+        this.lowerQuery = lowerQuery;
+    }
+
+    boolean test(int id) {
+        if (!checked.get(id)) {
+            checked.set(id);
+            if (dict.lower(id).contains(lowerQuery)) matched.set(id);
+        }
+        return matched.get(id);
+    }
+}
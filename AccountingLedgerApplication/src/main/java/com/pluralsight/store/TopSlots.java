@@ -0,0 +1,86 @@
+package com.pluralsight.store;
+
+/**
+ * The k best slots offered so far by a long sort key, in a bounded binary heap
+ * whose root is the worst slot kept. Picking the top k of n rows costs
+ * O(n log k) time and O(k) memory instead of sorting all n.
+ *
+ * Ties on the key are ordered by slot in the same direction as the key, which
+ * for timestamps is the order of the date index.
+ */
+class TopSlots {
+    private final int[] slots;
+    private final long[] keys;
+    private final boolean descending;
+    private int size;
+
+    TopSlots(int k, boolean descending) {
+        this.slots = new int[k];
+        this.keys = new long[k];
+        this.descending = descending;
+    }
+
+    void offer(int slot, long key) {
+        if (size < slots.length) {
+            slots[size] = slot;
+            keys[size] = key;
+            siftUp(size++);
+        } else if (size > 0 && before(key, slot, keys[0], slots[0])) {
+            slots[0] = slot;
+            keys[0] = key;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Empties the heap into an array, best slot first
+     */
+    int[] drain() {
+        int[] out = new int[size];
+        while (size > 0) {
+            out[size - 1] = slots[0];
+            size--;
+            slots[0] = slots[size];
+            keys[0] = keys[size];
+            siftDown(0);
+        }
+        return out;
+    }
+
+    // True if (keyA, slotA) belongs ahead of (keyB, slotB) in the result
+    private boolean before(long keyA, int slotA, long keyB, int slotB) {
+        if (keyA != keyB) return descending ? keyA > keyB : keyA < keyB;
+        return descending ? slotA > slotB : slotA < slotB;
+    }
+
+    // Heap order: every parent ranks after its children, so the root is the first to drop
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(keys[parent], slots[parent], keys[i], slots[i])) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int worst = i;
+            int left = 2 * i + 1, right = left + 1;
+            if (left < size && before(keys[worst], slots[worst], keys[left], slots[left])) worst = left;
+            if (right < size && before(keys[worst], slots[worst], keys[right], slots[right])) worst = right;
+            if (worst == i) return;
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int s = slots[a];
+        slots[a] = slots[b];
+        slots[b] = s;
+        long k = keys[a];
+        keys[a] = keys[b];
+        keys[b] = k;
+    }
+}
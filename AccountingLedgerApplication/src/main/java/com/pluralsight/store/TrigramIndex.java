@@ -0,0 +1,181 @@
+package com.pluralsight.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted index from lower-case character trigrams to the slots whose text
+ * contains them, used to answer "contains" queries of three or more chars
+ * without looking at every row.
+ *
+ * Slots are only ever appended in increasing order, so each posting list is
+ * stored as varint-encoded gaps in a byte array (usually one byte per slot).
+ * The trigrams of a value are computed once per dictionary id, not per row.
+ * A match on every trigram is necessary but not sufficient, so callers still
+ * verify candidates against the real text.
+ *
+ * Removing a slot only counts its postings as dead: cutting one slot out of a
+ * gap-encoded list means rewriting the list, and callers skip deleted slots
+ * anyway. Once a quarter of the stored postings are dead, {@link #prune}
+ * rewrites every list in one pass, so the dead share stays bounded and the
+ * rewrite is amortised over the removals that caused it.
+ */
+class TrigramIndex {
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    // Distinct trigram keys of each dictionary id, filled on first use
+    private final List<long[]> gramsById = new ArrayList<>();
+    // Postings stored, and how many of them belong to removed slots
+    private long postingCount;
+    private long deadPostings;
+
+    /**
+     * Indexes slot, whose text is dictionary entry id with lower-case value lowerText
+     */
+    void add(int slot, int id, String lowerText) {
+        while (gramsById.size() <= id) gramsById.add(null);
+        long[] grams = gramsById.get(id);
+        if (grams == null) {
+            grams = trigrams(lowerText);
+            gramsById.set(id, grams);
+        }
+        for (long g : grams) {
+            postings.computeIfAbsent(g, k -> new PostingList()).add(slot);
+        }
+        postingCount += grams.length;
+    }
+
+    /**
+     * Records that a slot holding dictionary entry id was removed; its postings stay until {@link #prune}
+     */
+    void removed(int id) {
+        deadPostings += gramsById.get(id).length;
+    }
+
+    /**
+     * True once at least a quarter of the stored postings belong to removed slots
+     */
+    boolean needsPrune() {
+        return deadPostings > 0 && deadPostings * 4 >= postingCount;
+    }
+
+    /**
+     * Rewrites every posting list without the deleted slots; O(postings)
+     */
+    void prune(BitSet deleted) {
+        postingCount = 0;
+        for (Iterator<PostingList> it = postings.values().iterator(); it.hasNext(); ) {
+            PostingList list = it.next();
+            list.removeAll(deleted);
+            if (list.count == 0) it.remove();
+            else postingCount += list.count;
+        }
+        deadPostings = 0;
+    }
+
+    /**
+     * Candidate slots (ascending) for a lower-case query of at least three chars
+     */
+    int[] candidates(String lowerQuery) {
+        long[] grams = trigrams(lowerQuery);
+        PostingList[] lists = new PostingList[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null) return new int[0];
+        }
+        // Start from the rarest trigram and intersect the rest into it
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.count, b.count));
+        int[] result = lists[0].decode();
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = intersect(result, lists[i].decode());
+        }
+        return result;
+    }
+
+    void clear() {
+        postings.clear();
+        gramsById.clear();
+        postingCount = 0;
+        deadPostings = 0;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else { out[n++] = a[i]; i++; j++; }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // Distinct trigrams of s packed as three 16-bit chars in one long
+    static long[] trigrams(String s) {
+        if (s.length() < 3) return new long[0];
+        long[] grams = new long[s.length() - 2];
+        for (int i = 0; i + 3 <= s.length(); i++) {
+            grams[i] = ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int n = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (n == 0 || grams[n - 1] != grams[i]) grams[n++] = grams[i];
+        }
+        return Arrays.copyOf(grams, n);
+    }
+
+    /**
+     * Ascending slot list stored as varint gaps
+     */
+    static class PostingList {
+        private byte[] data = new byte[4];
+        private int length;
+        private int count;
+        private int last = -1;
+
+        void add(int slot) {
+            if (slot == last) return;
+            int gap = slot - last;
+            last = slot;
+            count++;
+            if (length + 5 > data.length) data = Arrays.copyOf(data, data.length * 2);
+            while ((gap & ~0x7F) != 0) {
+                data[length++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            data[length++] = (byte) gap;
+        }
+
+        void removeAll(BitSet slots) {
+            int[] old = decode();
+            length = 0;
+            count = 0;
+            last = -1;
+            for (int slot : old) {
+                if (!slots.get(slot)) add(slot);
+            }
+        }
+
+        int[] decode() {
+            int[] out = new int[count];
+            int pos = 0, value = -1;
+            for (int i = 0; i < count; i++) {
+                int gap = 0, shift = 0;
+                byte b;
+                do {
+                    b = data[pos++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                value += gap;
+                out[i] = value;
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.pluralsight.store;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD half of {@link AmountKernels}. Kept in its own class so that nothing
+ * from jdk.incubator.vector is linked unless the module is present.
+ */
+final class VectorKernels {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    private VectorKernels() {
+    }
+
+    static AmountStats stats(long[] values, int from, int to) {
+        LongVector zero = LongVector.zero(SPECIES);
+        LongVector pos = zero, neg = zero;
+        LongVector min = LongVector.broadcast(SPECIES, Long.MAX_VALUE);
+        LongVector max = LongVector.broadcast(SPECIES, Long.MIN_VALUE);
+        int i = from;
+        int upper = from + SPECIES.loopBound(to - from);
+        // Branch-free: max(x, 0) is the positive part, min(x, 0) the negative part
+        for (; i < upper; i += SPECIES.length()) {
+            LongVector x = LongVector.fromArray(SPECIES, values, i);
+            pos = pos.add(x.max(zero));
+            neg = neg.add(x.min(zero));
+            min = min.min(x);
+            max = max.max(x);
+        }
+        long p = pos.reduceLanes(VectorOperators.ADD);
+        long n = neg.reduceLanes(VectorOperators.ADD);
+        long lo = min.reduceLanes(VectorOperators.MIN);
+        long hi = max.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            long v = values[i];
+            if (v > 0) p += v; else n += v;
+            if (v < lo) lo = v;
+            if (v > hi) hi = v;
+        }
+        return new AmountStats(p, n, lo, hi, to - from);
+    }
+
+    static int laneCount() {
+        return SPECIES.length();
+    }
+}
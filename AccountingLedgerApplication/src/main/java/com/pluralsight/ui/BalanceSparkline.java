@@ -0,0 +1,142 @@
+package com.pluralsight.ui;
+
+import com.pluralsight.Transaction;
+import com.pluralsight.store.LedgerListener;
+import com.pluralsight.store.LedgerStore;
+
+import static com.pluralsight.ui.UIUtils.*;
+
+/**
+ * Balance sparkline that costs O(width) to draw however large the ledger is.
+ *
+ * Rows are summarised into at most {@code width} buckets of equal size (a
+ * power of two) holding the min, max and last running balance. An append
+ * folds into the last bucket, and when the buckets run out neighbours are
+ * merged pairwise and the bucket size doubles. Deletes and edits shift every
+ * later balance, so they only mark the summary stale; it is re-bucketed from
+ * the store on the next draw. Each glyph shows whichever extreme of its bucket
+ * lies further from the previous glyph (min-max decimation), so spikes
+ * survive downsampling. With fewer rows than width the picture is exactly
+ * one glyph per transaction, as before.
+ */
+public class BalanceSparkline implements LedgerListener {
+    private static final String BARS = "▁▂▃▄▅▆▇█";
+
+    private final LedgerStore store;
+    private final int width;
+    private final long[] min;
+    private final long[] max;
+    private final long[] last;
+    private int buckets;
+    private int rowsPerBucket = 1;
+    // Rows in the last bucket
+    private int fill;
+    private long balance;
+    private boolean stale = true;
+
+    public BalanceSparkline(LedgerStore store, int width) {
+        this.store = store;
+        this.width = Math.max(2, width & ~1); // even, so pairwise merges line up
+        this.min = new long[this.width];
+        this.max = new long[this.width];
+        this.last = new long[this.width];
+    }
+
+    /**
+     * Glyphs available on a terminal of $COLUMNS (default 80) after the label
+     */
+    public static int terminalWidth() {
+        int columns = 80;
+        try {
+            String env = System.getenv("COLUMNS");
+            if (env != null) columns = Integer.parseInt(env.trim());
+        } catch (NumberFormatException ignored) {
+            // keep the default
+        }
+        return Math.max(10, columns - "Balance over time: ".length() - 1);
+    }
+
+    // ---- store events ----
+
+    @Override
+    public void rowAppended(int slot, Transaction row) {
+        if (stale) return; // rebuilt from the store on the next draw anyway
+        balance += row.getAmountCents();
+        add(balance);
+    }
+
+    @Override
+    public void rowRemoved(int slot) {
+        stale = true;
+    }
+
+    // ---- drawing ----
+
+    public void print() {
+        if (stale) rebuild();
+        System.out.print(BOLD + "\nBalance over time: " + RESET);
+        System.out.println(render());
+    }
+
+    /**
+     * The glyphs, newest first like the ledger table
+     */
+    String render() {
+        if (buckets == 0) return "";
+        long lo = Long.MAX_VALUE, hi = Long.MIN_VALUE;
+        for (int b = 0; b < buckets; b++) {
+            lo = Math.min(lo, min[b]);
+            hi = Math.max(hi, max[b]);
+        }
+        double low = lo / 100.0, range = hi / 100.0 - low + 1e-6;
+        char[] glyphs = new char[buckets];
+        long previous = last[0];
+        for (int b = 0; b < buckets; b++) {
+            long value = previous - min[b] > max[b] - previous ? min[b] : max[b];
+            if (min[b] == max[b]) value = last[b];
+            int idx = (int) ((value / 100.0 - low) / range * (BARS.length() - 1));
+            glyphs[buckets - 1 - b] = BARS.charAt(idx);
+            previous = last[b];
+        }
+        return new String(glyphs);
+    }
+
+    private void add(long value) {
+        if (buckets > 0 && fill < rowsPerBucket) {
+            int b = buckets - 1;
+            min[b] = Math.min(min[b], value);
+            max[b] = Math.max(max[b], value);
+            last[b] = value;
+            fill++;
+            return;
+        }
+        if (buckets == width) mergePairs();
+        min[buckets] = max[buckets] = last[buckets] = value;
+        buckets++;
+        fill = 1;
+    }
+
+    // Halves the bucket count; every bucket is full when this runs
+    private void mergePairs() {
+        for (int b = 0; b < buckets / 2; b++) {
+            int l = 2 * b, r = l + 1;
+            min[b] = Math.min(min[l], min[r]);
+            max[b] = Math.max(max[l], max[r]);
+            last[b] = last[r];
+        }
+        buckets /= 2;
+        rowsPerBucket *= 2;
+        fill = rowsPerBucket;
+    }
+
+    private void rebuild() {
+        long[] balances = store.balancesCents();
+        rowsPerBucket = 1;
+        while ((balances.length + rowsPerBucket - 1) / rowsPerBucket > width) rowsPerBucket *= 2;
+        buckets = 0;
+        fill = 0;
+        for (long b : balances) add(b);
+        balance = balances.length == 0 ? 0 : balances[balances.length - 1];
+        stale = false;
+    }
+}
@@ -0,0 +1,131 @@
+package com.pluralsight.ui;
+
+import com.pluralsight.Transaction;
+
+import java.util.List;
+import java.util.Scanner;
+
+import static com.pluralsight.ui.UIUtils.*;
+
+/**
+ * Interactive page-at-a-time view of a transaction list (usually newest first,
+ * as the ledger shows it; query results may be in any order). Only the rows on
+ * the current page are formatted, so large ledgers open instantly.
+ */
+public class TablePager {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final List<Transaction> rows;
+    private final Scanner scanner;
+    private final TableRenderer renderer = new TableRenderer();
+    private int pageSize;
+    private int first;
+    // Whether dates descend down the list, checked on the first jump (null until then)
+    private Boolean datesDescend;
+
+    public TablePager(List<Transaction> rows, Scanner scanner, int pageSize) {
+        this.rows = rows;
+        this.scanner = scanner;
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /**
+     * Shows pages until the user quits
+     */
+    public void run() {
+        while (true) {
+            int last = Math.min(first + pageSize, rows.size());
+            renderer.print(rows, first, last);
+            System.out.println(CYAN + "Rows " + (rows.isEmpty() ? 0 : first + 1) + "-" + last + " of " + rows.size()
+                    + "  (page " + (first / pageSize + 1) + "/" + Math.max(1, pages()) + ")" + RESET);
+            System.out.print(BOLD + "[N]ext [P]rev [J]ump to date [S]ize [A]ll [Q]uit: " + RESET);
+
+            switch (scanner.nextLine().trim().toUpperCase()) {
+                case "":
+                case "N":
+                    if (last < rows.size()) first = last;
+                    else System.out.println(YELLOW + "Already on the last page." + RESET);
+                    break;
+                case "P":
+                    if (first > 0) first = Math.max(0, first - pageSize);
+                    else System.out.println(YELLOW + "Already on the first page." + RESET);
+                    break;
+                case "J":
+                    System.out.print("Date (yyyy-MM-dd): ");
+                    jumpTo(scanner.nextLine().trim());
+                    break;
+                case "S":
+                    System.out.print("Rows per page: ");
+                    try {
+                        pageSize = Math.max(1, Integer.parseInt(scanner.nextLine().trim()));
+                        first -= first % pageSize;
+                    } catch (NumberFormatException e) {
+                        System.out.println(RED + "❌ Invalid number." + RESET);
+                    }
+                    break;
+                case "A":
+                    renderer.print(rows);
+                    return;
+                case "Q":
+                    return;
+                default:
+                    System.out.println(RED + "❌ Invalid option; please try again." + RESET);
+            }
+        }
+    }
+
+    /**
+     * Moves to the page holding the newest row on or before date
+     */
+    private void jumpTo(String date) {
+        if (!date.matches("\\d{4}-\\d{2}-\\d{2}")) {
+            System.out.println(RED + "❌ Invalid date format. Please use yyyy-MM-dd." + RESET);
+            return;
+        }
+        int at = datesDescend() ? searchDescending(date) : scan(date);
+        if (at < 0) {
+            System.out.println(YELLOW + "No transactions on or before " + date + "." + RESET);
+            return;
+        }
+        first = at - at % pageSize;
+    }
+
+    private boolean datesDescend() {
+        if (datesDescend == null) {
+            boolean descending = true;
+            for (int i = 1; i < rows.size() && descending; i++) {
+                descending = rows.get(i - 1).getDate().compareTo(rows.get(i).getDate()) >= 0;
+            }
+            datesDescend = descending;
+        }
+        return datesDescend;
+    }
+
+    // Newest first: binary search for the first row with date <= target
+    private int searchDescending(String date) {
+        int lo = 0, hi = rows.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (rows.get(mid).getDate().compareTo(date) > 0) lo = mid + 1; else hi = mid;
+        }
+        return lo == rows.size() ? -1 : lo;
+    }
+
+    // Any other order (e.g. a query sorted by amount): the first row with the latest date <= target
+    private int scan(String date) {
+        int best = -1;
+        String bestDate = null;
+        for (int i = 0; i < rows.size(); i++) {
+            String d = rows.get(i).getDate();
+            if (d.compareTo(date) <= 0 && (bestDate == null || d.compareTo(bestDate) > 0)) {
+                best = i;
+                bestDate = d;
+            }
+        }
+        return best;
+    }
+
+    private int pages() {
+        return (rows.size() + pageSize - 1) / pageSize;
+    }
+}
@@ -0,0 +1,128 @@
+package com.pluralsight.ui;
+
+import com.pluralsight.Transaction;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.text.DecimalFormatSymbols;
+import java.util.List;
+import java.util.Locale;
+
+import static com.pluralsight.ui.UIUtils.*;
+
+/**
+ * Draws the transaction table into one reused StringBuilder and writes it to
+ * the console in large chunks.
+ *
+ * Borders and the header are built once, columns are padded by hand and
+ * amounts are printed from whole cents, so a row costs a few appends instead
+ * of a format-string parse and a synchronized write. Like the original
+ * {@code System.out.format} version, lines end with the platform line
+ * separator and amounts use the default locale's decimal separator and digits.
+ */
+public class TableRenderer {
+    private static final String NEWLINE = System.lineSeparator();
+    private static final String BORDER =
+            CYAN + "+------------+--------+----------------------+-----------------+-----------------+----------+" + NEWLINE + RESET;
+    private static final String HEADER =
+            BOLD + "| Date       | Time   | Description          | Vendor          | Category        | Amount   |" + NEWLINE + RESET;
+    // Flush to the console whenever this many chars are buffered
+    private static final int CHUNK = 1 << 16;
+
+    private final StringBuilder buf = new StringBuilder(CHUNK + 512);
+    private char[] chunk = new char[CHUNK + 512];
+    private final Writer out;
+    // What %.2f prints for the point and the digit zero in the default format locale
+    private final char decimalSeparator;
+    private final char zeroDigit;
+
+    public TableRenderer() {
+        this(new OutputStreamWriter(System.out, System.out.charset()));
+    }
+
+    public TableRenderer(Writer out) {
+        this.out = out;
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.zeroDigit = symbols.getZeroDigit();
+    }
+
+    /**
+     * Whole table: header, every row, closing border
+     */
+    public void print(List<Transaction> rows) {
+        print(rows, 0, rows.size());
+    }
+
+    /**
+     * Table of rows[from, to) only; the other rows are never touched
+     */
+    public void print(List<Transaction> rows, int from, int to) {
+        buf.append(BORDER).append(HEADER).append(BORDER);
+        for (int i = from; i < to; i++) {
+            appendRow(rows.get(i));
+            if (buf.length() >= CHUNK) flush();
+        }
+        buf.append(BORDER);
+        flush();
+    }
+
+    void appendRow(Transaction t) {
+        long cents = t.getAmountCents();
+        buf.append("| ").append(t.getDate())
+                .append(" | ").append(t.getTime())
+                .append(" | ");
+        padRight(t.getDescription(), 20);
+        buf.append(" | ");
+        padRight(t.getVendor(), 15);
+        buf.append(" | ");
+        padRight(t.getCategory(), 15);
+        buf.append(" | ").append(cents > 0 ? GREEN : RED);
+        appendCents(cents, 8);
+        buf.append(RESET).append(" |").append(NEWLINE);
+    }
+
+    // %-<width>s: left-aligned, never truncated
+    private void padRight(String s, int width) {
+        buf.append(s);
+        for (int i = s.length(); i < width; i++) buf.append(' ');
+    }
+
+    // %<width>.2f for a whole number of cents
+    private void appendCents(long cents, int width) {
+        long abs = Math.abs(cents);
+        long units = abs / 100;
+        int frac = (int) (abs % 100);
+        int len = (cents < 0 ? 1 : 0) + digits(units) + 3;
+        for (int i = len; i < width; i++) buf.append(' ');
+        if (cents < 0) buf.append('-');
+        int start = buf.length();
+        buf.append(units);
+        if (zeroDigit != '0') {
+            for (int i = start; i < buf.length(); i++) buf.setCharAt(i, (char) (buf.charAt(i) - '0' + zeroDigit));
+        }
+        buf.append(decimalSeparator).append((char) (zeroDigit + frac / 10)).append((char) (zeroDigit + frac % 10));
+    }
+
+    private static int digits(long v) {
+        int n = 1;
+        while (v >= 10) { v /= 10; n++; }
+        return n;
+    }
+
+    private void flush() {
+        try {
+            int len = buf.length();
+            if (len > chunk.length) chunk = new char[len]; // a very long row
+            buf.getChars(0, len, chunk, 0);
+            out.write(chunk, 0, len);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buf.setLength(0);
+        }
+    }
+}
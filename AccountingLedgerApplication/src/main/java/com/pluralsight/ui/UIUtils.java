@@ -1,9 +1,16 @@
 package com.pluralsight.ui;
 
 import com.pluralsight.Transaction;
+import com.pluralsight.io.LedgerExporter;
+import com.pluralsight.store.CategorySummary;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.function.DoubleSupplier;
 
 public class UIUtils {
     public static final String RESET   = "\u001B[0m";
@@ -38,33 +45,32 @@ public class UIUtils {
         System.out.print("\r" + message + " ✓\n");
     }
 
+    /**
+     * 2b) Progress bar such as [██████░░░░]  63%
+     */
+    public static String progressBar(double fraction, int width) {
+        int filled = (int) Math.round(Math.max(0, Math.min(1, fraction)) * width);
+        return "[" + "█".repeat(filled) + "░".repeat(width - filled) + "] "
+                + String.format("%3d%%", Math.round(fraction * 100));
+    }
+
+    /**
+     * 2c) Redraws a progress bar until done completes (replaces the spinner for long loads)
+     */
+    public static void waitWithProgress(String message, Future<?> done, DoubleSupplier fraction) {
+        while (!done.isDone()) {
+            System.out.print("\r" + message + " " + progressBar(fraction.getAsDouble(), 30));
+            try { Thread.sleep(100); } catch (InterruptedException ex) { Thread.currentThread().interrupt(); break; }
+        }
+        System.out.print("\r" + message + " " + progressBar(1, 30) + " ✓\n");
+    }
+
     /**
      * 3) ASCII table for transactions including Category column
      */
     public static void printTable(List<Transaction> list) {
-        // Header line with Category column added
-        System.out.format("%s+------------+--------+----------------------+-----------------+-----------------+----------+%n%s",
-                CYAN, RESET);
-        System.out.format("%s| Date       | Time   | Description          | Vendor          | Category        | Amount   |%n%s",
-                BOLD, RESET);
-        System.out.format("%s+------------+--------+----------------------+-----------------+-----------------+----------+%n%s",
-                CYAN, RESET);
-        for (Transaction t : list) {
-            String col = t.getAmount() > 0 ? GREEN : RED;
-            System.out.format(
-                    "| %s | %s | %-20s | %-15s | %-15s | %s%8.2f%s |%n",
-                    t.getDate(),
-                    t.getTime(),
-                    t.getDescription(),
-                    t.getVendor(),
-                    t.getCategory(),
-                    col,
-                    t.getAmount(),
-                    RESET
-            );
-        }
-        System.out.format("%s+------------+--------+----------------------+-----------------+-----------------+----------+%n%s",
-                CYAN, RESET);
+        // Buffered: rows are appended to one StringBuilder and written in large chunks
+        new TableRenderer().print(list);
     }
 
     /**
@@ -80,38 +86,41 @@ public class UIUtils {
     }
 
     /**
-     * 5) Sparkline of balances
+     * 4b) Per-category totals table (amounts are cents)
      */
-    public static void printBalanceSparkline(List<Transaction> list) {
-        String bars = "▁▂▃▄▅▆▇█";
-        double min = list.stream().mapToDouble(Transaction::getBalance).min().orElse(0);
-        double max = list.stream().mapToDouble(Transaction::getBalance).max().orElse(1);
-        System.out.print(BOLD + "\nBalance over time: " + RESET);
-        for (Transaction t : list) {
-            int idx = (int)((t.getBalance() - min) / (max - min + 1e-6) * (bars.length() - 1));
-            System.out.print(bars.charAt(idx));
+    public static void printCategoryReport(List<CategorySummary> categories) {
+        System.out.format("%s+-----------------+------------+------------+-------+------------+------------+%n%s",
+                CYAN, RESET);
+        System.out.format("%s| Category        | Deposits   | Payments   | Count | Min        | Max        |%n%s",
+                BOLD, RESET);
+        System.out.format("%s+-----------------+------------+------------+-------+------------+------------+%n%s",
+                CYAN, RESET);
+        for (CategorySummary c : categories) {
+            System.out.format(
+                    "| %-15s | %s%10.2f%s | %s%10.2f%s | %5d | %10.2f | %10.2f |%n",
+                    c.getName(),
+                    GREEN, c.getDepositsCents() / 100.0, RESET,
+                    RED, -c.getPaymentsCents() / 100.0, RESET,
+                    c.getCount(),
+                    c.getMinCents() / 100.0,
+                    c.getMaxCents() / 100.0
+            );
         }
-        System.out.println();
+        System.out.format("%s+-----------------+------------+------------+-------+------------+------------+%n%s",
+                CYAN, RESET);
     }
 
     /**
-     * 6) Export transactions to Markdown
+     * 5) Export transactions to Markdown, as one String; files should use
+     * {@link LedgerExporter}, which streams instead of building the document
      */
     public static String toMarkdown(List<Transaction> list) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("| Date       | Time   | Description          | Vendor          | Category        | Amount   |\n")
-                .append("|------------|--------|----------------------|-----------------|-----------------|----------|\n");
-        for (Transaction t : list) {
-            sb.append(String.format(
-                    "| %s | %s | %-20s | %-15s | %-15s | %8.2f |\n",
-                    t.getDate(),
-                    t.getTime(),
-                    t.getDescription(),
-                    t.getVendor(),
-                    t.getCategory(),
-                    t.getAmount()
-            ));
+        StringWriter out = new StringWriter();
+        try {
+            LedgerExporter.write(list, out, LedgerExporter.Format.MARKDOWN, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a StringWriter does not throw
         }
-        return sb.toString();
+        return out.toString();
     }
 }
@@ -0,0 +1,147 @@
+package com.pluralsight.io;
+
+import com.pluralsight.Transaction;
+import com.pluralsight.store.ColumnarLedgerStore;
+import com.pluralsight.store.LedgerStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LedgerLogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendsDeletesAndCompactionsReloadToTheSameStore() throws IOException {
+        Path csv = dir.resolve("ledger.csv");
+        ColumnarLedgerStore store = new ColumnarLedgerStore();
+        LedgerLog log = new LedgerLog(csv, 0, new BitSet());
+        store.addListener(log);
+
+        // Enough deletes to compact several times; a compaction may still be
+        // running while the next round appends and deletes (the tail copy)
+        Random random = new Random(7);
+        int next = 0;
+        for (int round = 0; round < 40; round++) {
+            for (int i = 0; i < 50; i++) store.append(row(next++, random));
+            for (int i = 0; i < 12; i++) store.remove(random.nextInt(store.size()));
+            if (round % 5 == 4) store.removeByVendor("vendor 3");
+            log.flush();
+        }
+        log.close();
+        assertEquals(rows(store), rows(load(csv)));
+
+        // The compacted file's ordinals must line up for a second session as well
+        ColumnarLedgerStore reloaded = new ColumnarLedgerStore();
+        MappedLedgerLoader.LoadResult loaded = new MappedLedgerLoader().load(csv, reloaded);
+        LedgerLog second = new LedgerLog(csv, loaded, reloaded.slotCount());
+        reloaded.addListener(second);
+        reloaded.remove(0);
+        reloaded.remove(reloaded.size() - 1);
+        reloaded.append(row(next, random));
+        second.flush();
+        second.close();
+        assertEquals(rows(reloaded), rows(load(csv)));
+    }
+
+    @Test
+    void compactionRewritesTheBalanceColumnAndKeepsLinesItCannotParse() throws IOException {
+        Path csv = dir.resolve("ledger.csv");
+        Files.writeString(csv, "2024-01-01|10:00:00|a|va|c|10.00|10.00\n"
+                + "not a ledger line\n"
+                + "#a comment\n"
+                + "2024-01-02|10:00:00|b|vb|c|20.00|30.00\n"
+                + "2024-01-03|10:00:00|c|vc|c|-5.00|25.00\n"
+                + "2024-01-04|10:00:00|d|vd|c|1.00|26.00\n");
+        ColumnarLedgerStore store = new ColumnarLedgerStore();
+        MappedLedgerLoader.LoadResult loaded = new MappedLedgerLoader().load(csv, store);
+        assertEquals(2, loaded.getBadLines());
+        LedgerLog log = new LedgerLog(csv, loaded, store.slotCount());
+        store.addListener(log);
+
+        store.remove(1); // b, the record after the bad lines: one of four, so the flush compacts
+        log.flush();
+        log.close();
+
+        assertEquals("2024-01-01|10:00:00|a|va|c|10.00|10.00\n"
+                + "not a ledger line\n"
+                + "#a comment\n"
+                + "2024-01-03|10:00:00|c|vc|c|-5.00|5.00\n"
+                + "2024-01-04|10:00:00|d|vd|c|1.00|6.00\n", Files.readString(csv));
+        assertEquals(rows(store), rows(load(csv)));
+    }
+
+    @Test
+    void tailAndTombstonesAfterACheckpointReloadToTheSameStore() throws IOException {
+        Path csv = dir.resolve("ledger.csv");
+        Path noSegment = dir.resolve("ledger.ldgb");
+        Random random = new Random(11);
+        ColumnarLedgerStore store = new ColumnarLedgerStore();
+        LedgerLog log = new LedgerLog(csv, 0, new BitSet());
+        store.addListener(log);
+        for (int i = 0; i < 200; i++) store.append(row(i, random));
+        store.remove(10); // a tombstone inside the checkpoint
+        log.flush();
+        LedgerCheckpoint.write(store, log, csv);
+
+        // After the checkpoint: new rows, then deletes on both sides of it (few enough not to compact)
+        for (int i = 200; i < 230; i++) store.append(row(i, random));
+        store.remove(5);
+        store.remove(150);
+        store.remove(store.size() - 3);
+        store.remove(store.size() - 20);
+        log.flush();
+        log.close();
+        assertFalse(Files.readString(csv).isEmpty());
+
+        ColumnarLedgerStore fromCheckpoint = new ColumnarLedgerStore();
+        MappedLedgerLoader.LoadResult loaded = LedgerFiles.load(csv, noSegment, fromCheckpoint);
+        assertEquals(rows(store), rows(fromCheckpoint));
+        assertEquals(rows(store), rows(load(csv)));
+
+        // A log attached after a checkpoint load names the same records as a full load would
+        LedgerLog second = new LedgerLog(csv, loaded, fromCheckpoint.slotCount());
+        fromCheckpoint.addListener(second);
+        fromCheckpoint.remove(20);                          // covered by the checkpoint
+        fromCheckpoint.remove(fromCheckpoint.size() - 1);   // from the tail
+        second.flush();
+        second.close();
+        assertTrue(Files.readString(csv).contains(LedgerLog.TOMBSTONE_PREFIX));
+        assertEquals(rows(fromCheckpoint), rows(load(csv)));
+    }
+
+    private static ColumnarLedgerStore load(Path csv) throws IOException {
+        ColumnarLedgerStore store = new ColumnarLedgerStore();
+        new MappedLedgerLoader().load(csv, store);
+        return store;
+    }
+
+    private static Transaction row(int i, Random random) {
+        String date = String.format("2024-%02d-%02d", 1 + i / 280 % 12, 1 + i / 10 % 28);
+        String time = String.format("%02d:%02d:00", i / 60 % 24, i % 60);
+        return new Transaction(date, time, "row " + i, "vendor " + i % 7, "cat " + i % 3,
+                (random.nextInt(20_000) - 8_000) / 100.0);
+    }
+
+    // Every field of every row, with its running balance, oldest first
+    private static List<String> rows(LedgerStore store) {
+        List<String> out = new ArrayList<>(store.size());
+        for (int row = 0; row < store.size(); row++) {
+            Transaction t = store.get(row);
+            out.add(t.getDate() + " " + t.getTime() + " " + t.getDescription() + " " + t.getVendor() + " "
+                    + t.getCategory() + " " + t.getAmountCents() + " " + Math.round(t.getBalance() * 100));
+        }
+        return out;
+    }
+}
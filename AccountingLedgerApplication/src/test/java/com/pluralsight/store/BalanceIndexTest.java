@@ -0,0 +1,125 @@
+package com.pluralsight.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BalanceIndexTest {
+
+    @Test
+    void deleteAllMatchesANaivePrefixSum() {
+        Random random = new Random(3);
+        for (int size : new int[]{1, 2, 3, 7, 8, 9, 64, 100, 1023, 1024, 1025, 5000}) {
+            for (int density : new int[]{1, 10, 50, 90, 100}) { // percent of live slots marked
+                Naive naive = new Naive(size, random);
+                BalanceIndex index = naive.index();
+                for (int round = 0; round < 3; round++) {
+                    naive.deleteAll(index, naive.mark(density, random));
+                    naive.assertSame(index, size + "/" + density + "%/" + round);
+                    for (int i = random.nextInt(20); i > 0; i--) naive.append(index, random);
+                    naive.assertSame(index, size + "/" + density + "%/" + round + " appended");
+                }
+            }
+        }
+    }
+
+    @Test
+    void deleteAllAtTheEdgesMatchesANaivePrefixSum() {
+        Random random = new Random(5);
+        for (int size : new int[]{1, 2, 16, 17, 1000}) {
+            // only the first slot, only the last, both, and a run from the first (the sweep path)
+            int[][] sets = {{0}, {size - 1}, {0, size - 1}, range(0, Math.max(1, size / 2))};
+            for (int[] set : sets) {
+                Naive naive = new Naive(size, random);
+                BalanceIndex index = naive.index();
+                BitSet marked = new BitSet();
+                for (int slot : set) marked.set(slot);
+                naive.deleteAll(index, marked);
+                naive.assertSame(index, size + " " + marked);
+            }
+        }
+    }
+
+    @Test
+    void rebuildMatchesIncrementalUpdates() {
+        Random random = new Random(9);
+        Naive naive = new Naive(3000, random);
+        BalanceIndex index = naive.index();
+        naive.deleteAll(index, naive.mark(30, random));
+        naive.deleteAll(index, naive.mark(2, random));
+
+        BalanceIndex rebuilt = new BalanceIndex();
+        rebuilt.rebuild(naive.amounts, naive.deleted, naive.slots);
+        naive.assertSame(rebuilt, "rebuilt");
+        naive.append(rebuilt, random);
+        naive.assertSame(rebuilt, "rebuilt then appended");
+    }
+
+    private static int[] range(int from, int to) {
+        int[] out = new int[to - from];
+        for (int i = 0; i < out.length; i++) out[i] = from + i;
+        return out;
+    }
+
+    // The same ledger kept as plain arrays and answered by scanning
+    private static final class Naive {
+        long[] amounts = new long[16];
+        final BitSet deleted = new BitSet();
+        int slots;
+
+        Naive(int size, Random random) {
+            for (int i = 0; i < size; i++) add(random);
+        }
+
+        BalanceIndex index() {
+            BalanceIndex index = new BalanceIndex();
+            for (int slot = 0; slot < slots; slot++) index.append(amounts[slot]);
+            return index;
+        }
+
+        void append(BalanceIndex index, Random random) {
+            index.append(add(random));
+        }
+
+        private long add(Random random) {
+            if (slots == amounts.length) amounts = Arrays.copyOf(amounts, slots * 2);
+            long amount = random.nextInt(2_000_000) - 1_000_000;
+            amounts[slots++] = amount;
+            return amount;
+        }
+
+        // About percent of the live slots, never one already deleted
+        BitSet mark(int percent, Random random) {
+            BitSet marked = new BitSet();
+            for (int slot = 0; slot < slots; slot++) {
+                if (!deleted.get(slot) && random.nextInt(100) < percent) marked.set(slot);
+            }
+            return marked;
+        }
+
+        void deleteAll(BalanceIndex index, BitSet marked) {
+            index.deleteAll(marked, amounts);
+            deleted.or(marked);
+        }
+
+        void assertSame(BalanceIndex index, String where) {
+            assertEquals(slots, index.slots(), where + ": slots");
+            long sum = 0;
+            int live = 0;
+            for (int slot = 0; slot < slots; slot++) {
+                if (!deleted.get(slot)) {
+                    sum += amounts[slot];
+                    assertEquals(slot, index.slotOfRow(live), where + ": slot of row " + live);
+                    live++;
+                }
+                assertEquals(sum, index.prefix(slot), where + ": prefix at " + slot);
+                assertEquals(live, index.liveUpTo(slot), where + ": live up to " + slot);
+            }
+            assertEquals(sum, index.total(), where + ": total");
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.pluralsight.store;
+
+import com.pluralsight.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentLedgerStoreTest {
+    private static final int WRITERS = 4;
+    private static final int ROWS_PER_WRITER = 20_000;
+
+    @Test
+    void concurrentAppendsLoseNoRowAndBalancesNeverGoBack() throws InterruptedException {
+        ConcurrentLedgerStore store = new ConcurrentLedgerStore();
+        AtomicLong expected = new AtomicLong();
+        Failures failures = new Failures();
+
+        AtomicBoolean done = new AtomicBoolean();
+        Thread reader = new Thread(() -> {
+            long last = Long.MIN_VALUE;
+            while (!done.get()) {
+                long balance = store.balanceCents(); // deposits only: it can only grow
+                if (balance < last) failures.add("balance went back " + last + " -> " + balance);
+                last = balance;
+            }
+        });
+        reader.start();
+        runWriters(w -> {
+            Random random = new Random(w);
+            long sum = 0;
+            for (int i = 0; i < ROWS_PER_WRITER; i++) {
+                long cents = 1 + random.nextInt(10_000);
+                store.append(row(i, cents));
+                sum += cents;
+            }
+            expected.addAndGet(sum);
+        });
+        done.set(true);
+        reader.join();
+
+        failures.assertEmpty();
+        assertEquals(WRITERS * ROWS_PER_WRITER, store.size());
+        assertEquals(expected.get(), store.balanceCents());
+    }
+
+    @Test
+    void removesRacingReadsKeepEveryViewConsistent() throws InterruptedException {
+        ConcurrentLedgerStore store = new ConcurrentLedgerStore();
+        AtomicLong expected = new AtomicLong();
+        Failures failures = new Failures();
+
+        AtomicBoolean done = new AtomicBoolean();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            IntPredicate vendor = store.vendorContains("vendor 3");
+            IntPredicate description = store.descriptionContains("row 1");
+            Thread t = new Thread(() -> {
+                while (!done.get()) {
+                    // Sequential optimistic scans, the access pattern the row cursor serves
+                    int size = store.size();
+                    try {
+                        for (int row = 0; row < size; row++) {
+                            vendor.test(row);
+                            description.test(row);
+                            store.amountCents(row);
+                        }
+                    } catch (IndexOutOfBoundsException e) {
+                        // a remove shrank the ledger after size() was read
+                    }
+                    String bad = store.read(s -> {
+                        AmountStats stats = s.amountStats();
+                        if (stats.getNetCents() != s.balanceCents()) return "net " + stats.getNetCents() + " != " + s.balanceCents();
+                        if (stats.getCount() != s.size()) return "count " + stats.getCount() + " != " + s.size();
+                        return null;
+                    });
+                    if (bad != null) failures.add(bad);
+                }
+            });
+            readers.add(t);
+            t.start();
+        }
+        runWriters(w -> {
+            Random random = new Random(w);
+            long sum = 0;
+            for (int i = 0; i < ROWS_PER_WRITER; i++) {
+                if (random.nextInt(3) == 0) {
+                    Transaction removed = store.write(s -> s.size() == 0 ? null : s.remove(random.nextInt(s.size())));
+                    if (removed != null) sum -= removed.getAmountCents();
+                } else {
+                    long cents = random.nextInt(20_000) - 10_000;
+                    store.append(row(i, cents));
+                    sum += cents;
+                }
+            }
+            expected.addAndGet(sum);
+        });
+        done.set(true);
+        for (Thread t : readers) t.join();
+
+        failures.assertEmpty();
+        assertEquals(expected.get(), store.balanceCents());
+        // Every way of reaching a row must agree: the locked lookups (row cursor) and the optimistic ones
+        store.read(s -> {
+            IntPredicate vendor = store.vendorContains("vendor 3");
+            long sum = 0;
+            for (int row = 0; row < s.size(); row++) {
+                Transaction t = s.get(row);
+                assertEquals(t.getAmountCents(), store.amountCents(row), "amount of row " + row);
+                assertEquals(t.getVendor().contains("vendor 3"), vendor.test(row), "vendor of row " + row);
+                sum += t.getAmountCents();
+                assertEquals(sum, Math.round(t.getBalance() * 100), "balance of row " + row);
+            }
+            assertEquals(expected.get(), sum);
+            return null;
+        });
+    }
+
+    private interface WriterBody {
+        void run(int writer);
+    }
+
+    private static void runWriters(WriterBody body) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int id = w;
+            Thread t = new Thread(() -> body.run(id));
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) t.join();
+    }
+
+    private static Transaction row(int i, long cents) {
+        return new Transaction("2024-01-01", "12:00:00", "row " + (i % 50), "vendor " + (i % 7), "Test", cents / 100.0);
+    }
+
+    // Failures seen on reader threads, checked on the test thread
+    private static final class Failures {
+        private final ConcurrentLinkedQueue<String> messages = new ConcurrentLinkedQueue<>();
+
+        void add(String message) {
+            messages.add(message);
+        }
+
+        void assertEmpty() {
+            assertTrue(messages.isEmpty(), () -> "inconsistent reads: " + messages.stream().limit(5).toList());
+        }
+    }
+}